@@ -0,0 +1,76 @@
+﻿package com.banking.account.cache;
+import com.banking.account.dto.AccountMetadata;
+import com.banking.persistence.ReplicaCatchUp;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+@Component
+public class AccountReadCache {
+    private final Cache<String, AccountMetadata> cache;
+    private final Counter invalidations;
+    private final Timer invalidationLag;
+    private final Executor replicaCatchUp;
+    public AccountReadCache(MeterRegistry meterRegistry,
+                            @Value("${account.cache.local.max-size:50000}") long maxSize,
+                            @Value("${account.cache.local.ttl:PT30S}") Duration ttl,
+                            ObjectProvider<ReplicaCatchUp> replicaCatchUpProvider) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "account-read");
+        this.invalidations = Counter.builder("account.cache.invalidations")
+                .description("Cached account metadata evicted by status changes or account events")
+                .register(meterRegistry);
+        this.invalidationLag = Timer.builder("account.cache.staleness")
+                .description("Delay between an account event and the eviction of its cached metadata")
+                .register(meterRegistry);
+        ReplicaCatchUp catchUp = replicaCatchUpProvider.getIfAvailable();
+        this.replicaCatchUp = catchUp == null ? null
+                : CompletableFuture.delayedExecutor(catchUp.delay().toMillis(), TimeUnit.MILLISECONDS);
+    }
+    public AccountMetadata get(String accountNumber, Function<String, AccountMetadata> loader) {
+        return cache.get(accountNumber, loader);
+    }
+    public void evict(String accountNumber, long eventTimestamp) {
+        cache.invalidate(accountNumber);
+        invalidations.increment();
+        if (replicaCatchUp != null) {
+            replicaCatchUp.execute(() -> cache.invalidate(accountNumber));
+        }
+        if (eventTimestamp > 0) {
+            invalidationLag.record(Math.max(0, System.currentTimeMillis() - eventTimestamp), TimeUnit.MILLISECONDS);
+        }
+    }
+    public void evictAfterCommit(String accountNumber) {
+        evictAfterCommit(List.of(accountNumber));
+    }
+    public void evictAfterCommit(Collection<String> accountNumbers) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accountNumbers.forEach(accountNumber -> evict(accountNumber, 0));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                accountNumbers.forEach(accountNumber -> evict(accountNumber, 0));
+            }
+        });
+    }
+}
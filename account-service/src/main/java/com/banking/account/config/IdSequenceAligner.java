@@ -0,0 +1,34 @@
+﻿package com.banking.account.config;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.Map;
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory")
+public class IdSequenceAligner {
+    private static final int ALLOCATION_SIZE = 50;
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "accounts", "accounts_seq",
+            "account_history", "account_history_seq",
+            "account_balance_slots", "account_balance_slots_seq");
+    private final JdbcTemplate jdbcTemplate;
+    @PostConstruct
+    void align() {
+        SEQUENCES.forEach((table, sequence) -> {
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence
+                    + " START WITH 1 INCREMENT BY " + ALLOCATION_SIZE);
+            List<Long> aligned = jdbcTemplate.queryForList("SELECT setval('" + sequence + "', m.max_id) "
+                    + "FROM (SELECT COALESCE(MAX(id), 0) AS max_id FROM " + table + ") m "
+                    + "WHERE m.max_id >= (SELECT last_value FROM " + sequence + ")", Long.class);
+            if (!aligned.isEmpty()) {
+                log.info("Advanced sequence {} past existing {} ids to {}", sequence, table, aligned.get(0));
+            }
+        });
+    }
+}
@@ -2,11 +2,17 @@
 import com.banking.account.dto.*;
 import com.banking.account.entity.AccountStatus;
 import com.banking.account.service.AccountService;
+import com.banking.account.service.StatementExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 @RestController
@@ -14,6 +20,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AccountController {
     private final AccountService accountService;
+    private final StatementExportService statementExportService;
     @PostMapping
     public ResponseEntity<AccountDTO> createAccount(@Valid @RequestBody CreateAccountRequest request) {
         AccountDTO account = accountService.createAccount(request);
@@ -23,6 +30,10 @@ public class AccountController {
     public ResponseEntity<AccountDTO> getAccount(@PathVariable String accountNumber) {
         return ResponseEntity.ok(accountService.getAccountByNumber(accountNumber));
     }
+    @PostMapping("/lookup")
+    public ResponseEntity<List<AccountDTO>> lookupAccounts(@Valid @RequestBody AccountLookupRequest request) {
+        return ResponseEntity.ok(accountService.lookupAccounts(request.getAccountNumbers()));
+    }
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<AccountDTO>> getAccountsByUserId(@PathVariable Long userId) {
         return ResponseEntity.ok(accountService.getAccountsByUserId(userId));
@@ -43,6 +54,14 @@ public class AccountController {
             @Valid @RequestBody TransactionRequest request) {
         return ResponseEntity.ok(accountService.creditAccount(accountNumber, request));
     }
+    @PostMapping("/transfer")
+    public ResponseEntity<AccountDTO> transfer(@Valid @RequestBody TransferRequest request) {
+        return ResponseEntity.ok(accountService.transfer(request));
+    }
+    @PostMapping("/batch/postings")
+    public ResponseEntity<BatchPostingResponse> applyPostings(@Valid @RequestBody BatchPostingRequest request) {
+        return ResponseEntity.ok(accountService.applyPostings(request));
+    }
     @PatchMapping("/{accountNumber}/status")
     public ResponseEntity<AccountDTO> updateAccountStatus(
             @PathVariable String accountNumber,
@@ -50,8 +69,38 @@ public class AccountController {
         AccountStatus status = AccountStatus.valueOf(body.get("status"));
         return ResponseEntity.ok(accountService.updateAccountStatus(accountNumber, status));
     }
+    @PatchMapping("/{accountNumber}/striping")
+    public ResponseEntity<AccountDTO> configureBalanceStriping(
+            @PathVariable String accountNumber,
+            @RequestBody Map<String, Integer> body) {
+        return ResponseEntity.ok(accountService.configureBalanceStriping(accountNumber, body.get("slots")));
+    }
     @GetMapping("/{accountNumber}/history")
     public ResponseEntity<List<AccountHistoryDTO>> getAccountHistory(@PathVariable String accountNumber) {
         return ResponseEntity.ok(accountService.getAccountHistory(accountNumber));
     }
+    @GetMapping("/{accountNumber}/history/export")
+    public void exportAccountHistory(
+            @PathVariable String accountNumber,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        Long accountId = statementExportService.resolveAccountId(accountNumber, from, to);
+        response.setContentType(format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + accountNumber + "-statement." + format.getExtension() + "\"");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        statementExportService.exportHistory(accountId, from, to, format, gzip, response.getOutputStream());
+    }
+    @GetMapping("/{accountNumber}/history/page")
+    public ResponseEntity<CursorPage<AccountHistoryDTO>> getAccountHistoryPage(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(accountService.getAccountHistoryPage(accountNumber, cursor, size));
+    }
 }
@@ -22,6 +22,7 @@ public class AccountDTO {
     private AccountStatus status;
     private BigDecimal interestRate;
     private BigDecimal minimumBalance;
+    private Integer balanceSlots;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     public static AccountDTO from(Account account) {
@@ -35,6 +36,7 @@ public class AccountDTO {
                 .status(account.getStatus())
                 .interestRate(account.getInterestRate())
                 .minimumBalance(account.getMinimumBalance())
+                .balanceSlots(account.getBalanceSlots())
                 .createdAt(account.getCreatedAt())
                 .updatedAt(account.getUpdatedAt())
                 .build();
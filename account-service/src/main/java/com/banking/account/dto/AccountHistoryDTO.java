@@ -17,6 +17,7 @@ public class AccountHistoryDTO {
     private BigDecimal oldBalance;
     private BigDecimal newBalance;
     private BigDecimal amount;
+    private Integer slotIndex;
     private String transactionId;
     private String description;
     private LocalDateTime createdAt;
@@ -28,6 +29,7 @@ public class AccountHistoryDTO {
                 .oldBalance(history.getOldBalance())
                 .newBalance(history.getNewBalance())
                 .amount(history.getAmount())
+                .slotIndex(history.getSlotIndex())
                 .transactionId(history.getTransactionId())
                 .description(history.getDescription())
                 .createdAt(history.getCreatedAt())
@@ -0,0 +1,18 @@
+﻿package com.banking.account.dto;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountLookupRequest {
+    @NotEmpty(message = "At least one account number is required")
+    @Size(max = 500, message = "A lookup may contain at most 500 account numbers")
+    private List<@NotBlank String> accountNumbers;
+}
@@ -0,0 +1,31 @@
+﻿package com.banking.account.dto;
+import com.banking.account.entity.Account;
+import com.banking.account.entity.AccountStatus;
+import com.banking.account.entity.AccountType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountMetadata {
+    private String accountNumber;
+    private Long userId;
+    private AccountType accountType;
+    private String currency;
+    private AccountStatus status;
+    private BigDecimal minimumBalance;
+    public static AccountMetadata from(Account account) {
+        return AccountMetadata.builder()
+                .accountNumber(account.getAccountNumber())
+                .userId(account.getUserId())
+                .accountType(account.getAccountType())
+                .currency(account.getCurrency())
+                .status(account.getStatus())
+                .minimumBalance(account.getMinimumBalance())
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+﻿package com.banking.account.dto;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPostingRequest {
+    @NotEmpty(message = "At least one posting is required")
+    @Size(max = 10000, message = "A batch may contain at most 10000 postings")
+    private List<@Valid PostingRequest> postings;
+}
@@ -0,0 +1,16 @@
+﻿package com.banking.account.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPostingResponse {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<PostingResult> results;
+}
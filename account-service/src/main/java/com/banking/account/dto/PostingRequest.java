@@ -0,0 +1,25 @@
+﻿package com.banking.account.dto;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostingRequest {
+    @NotBlank(message = "Account number is required")
+    private String accountNumber;
+    @NotNull(message = "Posting type is required")
+    private PostingType type;
+    @NotNull(message = "Amount is required")
+    @Positive(message = "Amount must be positive")
+    private BigDecimal amount;
+    @NotBlank(message = "Transaction id is required")
+    private String transactionId;
+    private String description;
+}
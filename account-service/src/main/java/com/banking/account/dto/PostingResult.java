@@ -0,0 +1,19 @@
+﻿package com.banking.account.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostingResult {
+    private int index;
+    private String accountNumber;
+    private String transactionId;
+    private boolean success;
+    private BigDecimal oldBalance;
+    private BigDecimal newBalance;
+    private String error;
+}
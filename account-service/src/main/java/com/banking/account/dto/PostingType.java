@@ -0,0 +1,5 @@
+﻿package com.banking.account.dto;
+public enum PostingType {
+    DEBIT,
+    CREDIT
+}
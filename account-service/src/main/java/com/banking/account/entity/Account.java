@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Account {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_seq")
+    @SequenceGenerator(name = "accounts_seq", sequenceName = "accounts_seq", allocationSize = 50)
     private Long id;
     @Column(name = "account_number", unique = true, nullable = false, length = 20)
     private String accountNumber;
@@ -41,6 +42,9 @@ public class Account {
     @Column(name = "minimum_balance", precision = 15, scale = 2)
     @Builder.Default
     private BigDecimal minimumBalance = BigDecimal.ZERO;
+    @Column(name = "balance_slots")
+    @Builder.Default
+    private Integer balanceSlots = 0;
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -49,4 +53,7 @@ public class Account {
     private LocalDateTime updatedAt;
     @Version
     private Long version; // Optimistic locking for concurrent updates
+    public boolean isStriped() {
+        return balanceSlots != null && balanceSlots > 0;
+    }
 }
@@ -0,0 +1,29 @@
+﻿package com.banking.account.entity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+@Entity
+@Table(name = "account_balance_slots",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"account_number", "slot_index"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceSlot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_balance_slots_seq")
+    @SequenceGenerator(name = "account_balance_slots_seq", sequenceName = "account_balance_slots_seq", allocationSize = 50)
+    private Long id;
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    @Column(name = "account_number", nullable = false, length = 20)
+    private String accountNumber;
+    @Column(name = "slot_index", nullable = false)
+    private Integer slotIndex;
+    @Column(precision = 15, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal balance = BigDecimal.ZERO;
+}
@@ -8,14 +8,18 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 @Entity
-@Table(name = "account_history")
+@Table(name = "account_history", indexes = {
+        @Index(name = "idx_account_history_account_created", columnList = "account_id, created_at, id"),
+        @Index(name = "idx_account_history_transaction_id", columnList = "transaction_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class AccountHistory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_history_seq")
+    @SequenceGenerator(name = "account_history_seq", sequenceName = "account_history_seq", allocationSize = 50)
     private Long id;
     @Column(name = "account_id", nullable = false)
     private Long accountId;
@@ -33,6 +37,8 @@ public class AccountHistory {
     private String newStatus;
     @Column(precision = 15, scale = 2)
     private BigDecimal amount;
+    @Column(name = "slot_index")
+    private Integer slotIndex;
     @Column(name = "transaction_id")
     private String transactionId;
     @Column(name = "performed_by", length = 100)
@@ -0,0 +1,34 @@
+﻿package com.banking.account.entity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "idempotency_key", length = 150)
+    private String idempotencyKey;
+    @Column(nullable = false, length = 20)
+    private String operation;
+    @Column(name = "account_number", nullable = false, length = 20)
+    private String accountNumber;
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    @Column(columnDefinition = "TEXT")
+    private String response;
+    @Column(name = "result_hash", length = 64)
+    private String resultHash;
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,21 @@
+﻿package com.banking.account.entity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+@Entity
+@Table(name = "ledger_checkpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerCheckpoint {
+    @Id
+    private Integer shard;
+    @Column(name = "projected_sequence", nullable = false)
+    private Long projectedSequence;
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,18 @@
+﻿package com.banking.account.event;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountStatusChangedEvent {
+    private Long accountId;
+    private String accountNumber;
+    private Long userId;
+    private String oldStatus;
+    private String newStatus;
+    private LocalDateTime timestamp;
+}
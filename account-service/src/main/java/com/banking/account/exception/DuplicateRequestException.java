@@ -0,0 +1,6 @@
+﻿package com.banking.account.exception;
+public class DuplicateRequestException extends RuntimeException {
+    public DuplicateRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+﻿package com.banking.account.exception;
+public class LedgerUnavailableException extends RuntimeException {
+    public LedgerUnavailableException(String message) {
+        super(message);
+    }
+    public LedgerUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
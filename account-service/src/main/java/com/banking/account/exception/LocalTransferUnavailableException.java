@@ -0,0 +1,6 @@
+﻿package com.banking.account.exception;
+public class LocalTransferUnavailableException extends RuntimeException {
+    public LocalTransferUnavailableException(String message) {
+        super(message);
+    }
+}
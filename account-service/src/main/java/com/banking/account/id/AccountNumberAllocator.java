@@ -0,0 +1,72 @@
+﻿package com.banking.account.id;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.locks.ReentrantLock;
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountNumberAllocator {
+    static final int BLOCK_SIZE = 1000;
+    private static final String PREFIX = "ACC";
+    private static final int DIGITS = 12;
+    private static final String SEQUENCE = "account_number_block_seq";
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long next;
+    private long blockEnd;
+    @PostConstruct
+    void createSequence() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE + " START WITH 1 INCREMENT BY 1");
+    }
+    public String nextAccountNumber() {
+        lock.lock();
+        try {
+            if (next >= blockEnd) {
+                reserveBlock();
+            }
+            return format(next++);
+        } finally {
+            lock.unlock();
+        }
+    }
+    static String format(long value) {
+        String number = Long.toString(value);
+        if (number.length() > DIGITS) {
+            throw new IllegalStateException("Account number space exhausted: " + value);
+        }
+        StringBuilder digits = new StringBuilder(DIGITS);
+        for (int i = number.length(); i < DIGITS; i++) {
+            digits.append('0');
+        }
+        digits.append(number);
+        return PREFIX + digits + checkDigit(digits);
+    }
+    static char checkDigit(CharSequence digits) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int d = digits.charAt(i) - '0';
+            if (doubled) {
+                d *= 2;
+                if (d > 9) {
+                    d -= 9;
+                }
+            }
+            sum += d;
+            doubled = !doubled;
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+    private void reserveBlock() {
+        Long block = jdbcTemplate.queryForObject("SELECT nextval('" + SEQUENCE + "')", Long.class);
+        if (block == null) {
+            throw new IllegalStateException("Could not reserve an account number block");
+        }
+        next = block * BLOCK_SIZE;
+        blockEnd = next + BLOCK_SIZE;
+        log.info("Reserved account numbers {} to {}", next, blockEnd - 1);
+    }
+}
@@ -0,0 +1,50 @@
+﻿package com.banking.account.ledger;
+import com.banking.account.dto.AccountDTO;
+import com.banking.account.dto.PostingType;
+import lombok.Getter;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+@Getter
+final class LedgerCommand {
+    private final String accountNumber;
+    private final PostingType type;
+    private final BigDecimal amount;
+    private final String transactionId;
+    private final String description;
+    private final String idempotencyKey;
+    private final CompletableFuture<AccountDTO> future = new CompletableFuture<>();
+    private AccountDTO result;
+    private RuntimeException error;
+    private LedgerCommand(String accountNumber, PostingType type, BigDecimal amount,
+                          String transactionId, String description, String idempotencyKey) {
+        this.accountNumber = accountNumber;
+        this.type = type;
+        this.amount = amount;
+        this.transactionId = transactionId;
+        this.description = description;
+        this.idempotencyKey = idempotencyKey;
+    }
+    static LedgerCommand posting(String accountNumber, PostingType type, BigDecimal amount,
+                                 String transactionId, String description, String idempotencyKey) {
+        return new LedgerCommand(accountNumber, type, amount, transactionId, description, idempotencyKey);
+    }
+    static LedgerCommand refresh(String accountNumber) {
+        return new LedgerCommand(accountNumber, null, null, null, null, null);
+    }
+    boolean isRefresh() {
+        return type == null;
+    }
+    void succeed(AccountDTO result) {
+        this.result = result;
+    }
+    void fail(RuntimeException error) {
+        this.error = error;
+    }
+    void finish() {
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            future.complete(result);
+        }
+    }
+}
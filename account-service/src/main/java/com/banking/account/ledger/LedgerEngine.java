@@ -0,0 +1,181 @@
+﻿package com.banking.account.ledger;
+import com.banking.account.dto.AccountDTO;
+import com.banking.account.dto.PostingType;
+import com.banking.account.dto.TransactionRequest;
+import com.banking.account.entity.Account;
+import com.banking.account.exception.AccountNotFoundException;
+import com.banking.account.exception.InsufficientBalanceException;
+import com.banking.account.exception.InvalidAccountOperationException;
+import com.banking.account.exception.LedgerUnavailableException;
+import com.banking.account.repository.AccountRepository;
+import com.banking.account.service.HotAccountService;
+import com.banking.account.service.IdempotencyService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.posting.mode", havingValue = "LEDGER")
+public class LedgerEngine {
+    private final AccountRepository accountRepository;
+    private final HotAccountService hotAccountService;
+    private final IdempotencyService idempotencyService;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerProjector projector;
+    private final MeterRegistry meterRegistry;
+    private final Path journalDirectory;
+    private final int shardCount;
+    private final int ringSize;
+    private final int maxBatchSize;
+    private final int segmentSize;
+    private final Duration claimTimeout;
+    private final int claimSweepBatchSize;
+    private final List<LedgerShard> shards = new ArrayList<>();
+    private LedgerWriterLock writerLock;
+    public LedgerEngine(AccountRepository accountRepository,
+                        HotAccountService hotAccountService,
+                        IdempotencyService idempotencyService,
+                        DataSource dataSource,
+                        TransactionTemplate transactionTemplate,
+                        LedgerProjector projector,
+                        MeterRegistry meterRegistry,
+                        @Value("${account.ledger.journal.dir:data/ledger}") Path journalDirectory,
+                        @Value("${account.ledger.journal.segment-size:67108864}") int segmentSize,
+                        @Value("${account.ledger.shards:0}") int shardCount,
+                        @Value("${account.ledger.ring-size:65536}") int ringSize,
+                        @Value("${account.ledger.batch.max-size:4096}") int maxBatchSize,
+                        @Value("${account.ledger.claim-timeout:PT5M}") Duration claimTimeout,
+                        @Value("${account.ledger.claim-sweep.batch-size:1000}") int claimSweepBatchSize) {
+        this.accountRepository = accountRepository;
+        this.hotAccountService = hotAccountService;
+        this.idempotencyService = idempotencyService;
+        this.dataSource = dataSource;
+        this.transactionTemplate = transactionTemplate;
+        this.projector = projector;
+        this.meterRegistry = meterRegistry;
+        this.journalDirectory = journalDirectory;
+        this.segmentSize = segmentSize;
+        this.shardCount = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.ringSize = ringSize;
+        this.maxBatchSize = maxBatchSize;
+        this.claimTimeout = claimTimeout;
+        this.claimSweepBatchSize = claimSweepBatchSize;
+    }
+    @PostConstruct
+    void start() throws IOException, SQLException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        writerLock = new LedgerWriterLock(dataSource);
+        try {
+            for (int retired : LedgerJournal.shardsIn(journalDirectory)) {
+                if (retired >= shardCount) {
+                    writerLock.acquire(retired);
+                    try (LedgerJournal journal = new LedgerJournal(journalDirectory, retired, segmentSize)) {
+                        projector.recover(retired, journal);
+                    }
+                }
+            }
+            for (int i = 0; i < shardCount; i++) {
+                writerLock.acquire(i);
+                LedgerJournal journal = new LedgerJournal(journalDirectory, i, segmentSize);
+                projector.recover(i, journal);
+                long sequence = Math.max(journal.getLastSequence(), projector.projectedSequence(i));
+                shards.add(new LedgerShard(i, ringSize, maxBatchSize, journal, sequence,
+                        this::load, projector, meterRegistry));
+            }
+        } catch (IOException | SQLException | RuntimeException e) {
+            writerLock.close();
+            throw e;
+        }
+        Integer released = transactionTemplate.execute(status -> idempotencyService.releaseUnfinished(startedAt));
+        if (released != null && released > 0) {
+            log.info("Released {} idempotency claims that never reached the ledger journal", released);
+        }
+        projector.start();
+        shards.forEach(LedgerShard::start);
+        log.info("Ledger engine started with {} shards journaling to {}", shardCount, journalDirectory.toAbsolutePath());
+    }
+    @PreDestroy
+    void stop() {
+        shards.forEach(LedgerShard::stop);
+        projector.stop();
+        writerLock.close();
+        log.info("Ledger engine stopped");
+    }
+    public CompletableFuture<AccountDTO> submit(String accountNumber, PostingType type, TransactionRequest request) {
+        String idempotencyKey = idempotencyService.keyFor(type.name(), accountNumber, request);
+        if (idempotencyKey == null) {
+            return shard(accountNumber).submit(LedgerCommand.posting(accountNumber, type, request.getAmount(),
+                    request.getTransactionId(), request.getDescription(), null));
+        }
+        projector.track(idempotencyKey);
+        CompletableFuture<AccountDTO> future = shard(accountNumber).submit(LedgerCommand.posting(accountNumber, type,
+                request.getAmount(), request.getTransactionId(), request.getDescription(), idempotencyKey));
+        future.whenComplete((result, error) -> {
+            if (error != null && neverJournaled(error)) {
+                projector.untrack(idempotencyKey);
+            }
+        });
+        return future;
+    }
+    public static boolean neverJournaled(Throwable error) {
+        return error instanceof LedgerUnavailableException
+                || error instanceof AccountNotFoundException
+                || error instanceof InvalidAccountOperationException
+                || error instanceof InsufficientBalanceException;
+    }
+    public AccountDTO post(String accountNumber, PostingType type, TransactionRequest request) {
+        try {
+            return submit(accountNumber, type, request).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+    @Scheduled(fixedDelayString = "${account.ledger.claim-sweep.interval-ms:60000}")
+    public void releaseAbandonedClaims() {
+        List<String> abandoned = idempotencyService.findUnfinishedKeys(LocalDateTime.now().minus(claimTimeout),
+                        claimSweepBatchSize).stream()
+                .filter(key -> !projector.isUnprojected(key))
+                .collect(Collectors.toList());
+        if (abandoned.isEmpty()) {
+            return;
+        }
+        Integer released = transactionTemplate.execute(status -> idempotencyService.releaseKeys(abandoned));
+        if (released != null && released > 0) {
+            log.warn("Released {} idempotency claims that never reached the ledger journal", released);
+        }
+    }
+    public void refresh(String accountNumber) {
+        shard(accountNumber).submit(LedgerCommand.refresh(accountNumber));
+    }
+    private LedgerShard shard(String accountNumber) {
+        return shards.get(Math.floorMod(accountNumber.hashCode(), shards.size()));
+    }
+    private Optional<Account> load(String accountNumber) {
+        return transactionTemplate.execute(status -> accountRepository.findByAccountNumberForUpdate(accountNumber)
+                .map(account -> {
+                    if (account.isStriped()) {
+                        hotAccountService.consolidate(account);
+                    }
+                    return account;
+                }));
+    }
+}
@@ -0,0 +1,26 @@
+﻿package com.banking.account.ledger;
+import com.banking.account.dto.PostingType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntry {
+    private long sequence;
+    private long accountId;
+    private long userId;
+    private String accountNumber;
+    private PostingType type;
+    private BigDecimal amount;
+    private BigDecimal oldBalance;
+    private BigDecimal newBalance;
+    private String transactionId;
+    private String description;
+    private String idempotencyKey;
+    private LocalDateTime timestamp;
+}
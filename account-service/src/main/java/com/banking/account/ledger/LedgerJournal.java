@@ -0,0 +1,222 @@
+﻿package com.banking.account.ledger;
+import com.banking.account.dto.PostingType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+public class LedgerJournal implements AutoCloseable {
+    private static final Pattern SEGMENT_NAME = Pattern.compile("ledger-(\\d+)-(\\d+)\\.journal");
+    private static final int RECORD_OVERHEAD = Integer.BYTES + Long.BYTES;
+    private final Path directory;
+    private final int shard;
+    private final int segmentSize;
+    private final List<MappedByteBuffer> unsynced = new ArrayList<>();
+    private MappedByteBuffer buffer;
+    private int syncedPosition;
+    private long lastSequence;
+    public LedgerJournal(Path directory, int shard, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.shard = shard;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            openSegment(1);
+            return;
+        }
+        Path last = segments.get(segments.size() - 1);
+        lastSequence = firstSequence(last) - 1;
+        buffer = map(last, FileChannel.MapMode.READ_WRITE);
+        int end = scan(buffer, entry -> lastSequence = entry.getSequence());
+        buffer.position(end);
+        syncedPosition = end;
+    }
+    public static Set<Integer> shardsIn(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Set.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> SEGMENT_NAME.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Integer.parseInt(matcher.group(1)))
+                    .collect(Collectors.toCollection(TreeSet::new));
+        }
+    }
+    public long getLastSequence() {
+        return lastSequence;
+    }
+    public void append(LedgerEntry entry) throws IOException {
+        byte[] payload = encode(entry);
+        int recordSize = payload.length + RECORD_OVERHEAD;
+        if (recordSize + Integer.BYTES > segmentSize) {
+            throw new IllegalStateException("Ledger entry of " + recordSize + " bytes does not fit a journal segment");
+        }
+        if (buffer.remaining() < recordSize + Integer.BYTES) {
+            unsynced.add(buffer);
+            openSegment(entry.getSequence());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.putInt(payload.length);
+        buffer.put(payload);
+        buffer.putLong(crc.getValue());
+        lastSequence = entry.getSequence();
+    }
+    public void sync() {
+        for (MappedByteBuffer full : unsynced) {
+            full.force();
+        }
+        unsynced.clear();
+        int position = buffer.position();
+        if (position > syncedPosition) {
+            buffer.force(syncedPosition, position - syncedPosition);
+            syncedPosition = position;
+        }
+    }
+    public void readAfter(long sequence, Consumer<LedgerEntry> sink) throws IOException {
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) - 1 <= sequence) {
+                continue;
+            }
+            scan(map(segments.get(i), FileChannel.MapMode.READ_ONLY), entry -> {
+                if (entry.getSequence() > sequence) {
+                    sink.accept(entry);
+                }
+            });
+        }
+    }
+    public void truncateBefore(long projectedSequence) throws IOException {
+        List<Path> segments = segments();
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSequence(segments.get(i + 1)) - 1 > projectedSequence) {
+                return;
+            }
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+    @Override
+    public void close() {
+        sync();
+    }
+    private void openSegment(long firstSequence) throws IOException {
+        buffer = map(directory.resolve("ledger-" + shard + "-" + String.format("%020d", firstSequence) + ".journal"),
+                FileChannel.MapMode.READ_WRITE);
+        syncedPosition = 0;
+    }
+    private MappedByteBuffer map(Path segment, FileChannel.MapMode mode) throws IOException {
+        boolean writable = mode == FileChannel.MapMode.READ_WRITE;
+        try (FileChannel channel = writable
+                ? FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(segment, StandardOpenOption.READ)) {
+            return channel.map(mode, 0, writable ? segmentSize : channel.size());
+        }
+    }
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                        return matcher.matches() && Integer.parseInt(matcher.group(1)) == shard;
+                    })
+                    .sorted(Comparator.comparingLong(LedgerJournal::firstSequence))
+                    .collect(Collectors.toList());
+        }
+    }
+    private static long firstSequence(Path segment) {
+        Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a ledger journal segment: " + segment);
+        }
+        return Long.parseLong(matcher.group(2));
+    }
+    private static int scan(MappedByteBuffer segment, Consumer<LedgerEntry> sink) {
+        int position = 0;
+        while (segment.limit() - position >= RECORD_OVERHEAD) {
+            int length = segment.getInt(position);
+            if (length <= 0 || segment.limit() - position < length + RECORD_OVERHEAD) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            segment.get(position + Integer.BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if (crc.getValue() != segment.getLong(position + Integer.BYTES + length)) {
+                break;
+            }
+            sink.accept(decode(payload));
+            position += length + RECORD_OVERHEAD;
+        }
+        return position;
+    }
+    private static byte[] encode(LedgerEntry entry) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(192);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(entry.getSequence());
+            out.writeLong(entry.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli());
+            out.writeLong(entry.getAccountId());
+            out.writeLong(entry.getUserId());
+            out.writeUTF(entry.getAccountNumber());
+            out.writeByte(entry.getType().ordinal());
+            out.writeUTF(entry.getAmount().toPlainString());
+            out.writeUTF(entry.getOldBalance().toPlainString());
+            out.writeUTF(entry.getNewBalance().toPlainString());
+            writeNullable(out, entry.getTransactionId());
+            writeNullable(out, entry.getDescription());
+            writeNullable(out, entry.getIdempotencyKey());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    private static LedgerEntry decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return LedgerEntry.builder()
+                    .sequence(in.readLong())
+                    .timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()), ZoneOffset.UTC))
+                    .accountId(in.readLong())
+                    .userId(in.readLong())
+                    .accountNumber(in.readUTF())
+                    .type(PostingType.values()[in.readByte()])
+                    .amount(new BigDecimal(in.readUTF()))
+                    .oldBalance(new BigDecimal(in.readUTF()))
+                    .newBalance(new BigDecimal(in.readUTF()))
+                    .transactionId(readNullable(in))
+                    .description(readNullable(in))
+                    .idempotencyKey(in.available() > 0 ? readNullable(in) : null)
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,259 @@
+﻿package com.banking.account.ledger;
+import com.banking.account.dto.AccountDTO;
+import com.banking.account.dto.PostingType;
+import com.banking.account.entity.Account;
+import com.banking.account.entity.AccountHistory;
+import com.banking.account.entity.LedgerCheckpoint;
+import com.banking.account.event.AccountBalanceChangedEvent;
+import com.banking.account.outbox.OutboxPublisher;
+import com.banking.account.repository.AccountHistoryRepository;
+import com.banking.account.repository.AccountRepository;
+import com.banking.account.repository.LedgerCheckpointRepository;
+import com.banking.account.service.IdempotencyService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.posting.mode", havingValue = "LEDGER")
+public class LedgerProjector {
+    private final AccountRepository accountRepository;
+    private final AccountHistoryRepository historyRepository;
+    private final LedgerCheckpointRepository checkpointRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final IdempotencyService idempotencyService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retryDelay;
+    private final int maxBatchSize;
+    private final BlockingQueue<Map.Entry<Integer, List<LedgerEntry>>> pending;
+    private final Map<Integer, AtomicLong> projected = new ConcurrentHashMap<>();
+    private final Set<String> unprojectedKeys = ConcurrentHashMap.newKeySet();
+    private final Thread worker = new Thread(this::run, "ledger-projector");
+    private final Timer projectionTimer;
+    private final DistributionSummary projectionBatchSize;
+    private volatile boolean running;
+    public LedgerProjector(AccountRepository accountRepository,
+                           AccountHistoryRepository historyRepository,
+                           LedgerCheckpointRepository checkpointRepository,
+                           OutboxPublisher outboxPublisher,
+                           IdempotencyService idempotencyService,
+                           TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${account.ledger.projection.retry-delay:PT1S}") Duration retryDelay,
+                           @Value("${account.ledger.projection.max-batch-size:5000}") int maxBatchSize,
+                           @Value("${account.ledger.projection.queue-capacity:1024}") int queueCapacity) {
+        this.accountRepository = accountRepository;
+        this.historyRepository = historyRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.idempotencyService = idempotencyService;
+        this.transactionTemplate = transactionTemplate;
+        this.retryDelay = retryDelay;
+        this.maxBatchSize = maxBatchSize;
+        this.pending = new LinkedBlockingQueue<>(queueCapacity);
+        this.projectionTimer = Timer.builder("ledger.projection.duration")
+                .description("Time to write one batch of ledger entries to the accounts tables")
+                .register(meterRegistry);
+        this.projectionBatchSize = DistributionSummary.builder("ledger.projection.batch.size")
+                .description("Ledger entries written per projection transaction")
+                .register(meterRegistry);
+    }
+    public long projectedSequence(int shard) {
+        AtomicLong sequence = projected.get(shard);
+        return sequence != null ? sequence.get() : 0;
+    }
+    public int recover(int shard, LedgerJournal journal) throws IOException {
+        long checkpoint = checkpointRepository.findById(shard)
+                .map(LedgerCheckpoint::getProjectedSequence)
+                .orElse(0L);
+        projected.put(shard, new AtomicLong(checkpoint));
+        List<LedgerEntry> replay = new ArrayList<>();
+        int[] replayed = {0};
+        journal.readAfter(checkpoint, entry -> {
+            replay.add(entry);
+            if (replay.size() >= maxBatchSize) {
+                project(shard, replay);
+                replayed[0] += replay.size();
+                replay.clear();
+            }
+        });
+        if (!replay.isEmpty()) {
+            project(shard, replay);
+            replayed[0] += replay.size();
+        }
+        if (journal.getLastSequence() < checkpoint) {
+            log.warn("Ledger journal for shard {} ends at {} but the checkpoint is {}; continuing after the checkpoint",
+                    shard, journal.getLastSequence(), checkpoint);
+        }
+        log.info("Ledger shard {} recovered from checkpoint {}, replayed {} journal entries", shard, checkpoint, replayed[0]);
+        return replayed[0];
+    }
+    void track(String idempotencyKey) {
+        unprojectedKeys.add(idempotencyKey);
+    }
+    void untrack(String idempotencyKey) {
+        unprojectedKeys.remove(idempotencyKey);
+    }
+    boolean isUnprojected(String idempotencyKey) {
+        return unprojectedKeys.contains(idempotencyKey);
+    }
+    void enqueue(int shard, List<LedgerEntry> entries) throws InterruptedException {
+        pending.put(Map.entry(shard, entries));
+    }
+    void start() {
+        running = true;
+        worker.start();
+    }
+    void stop() {
+        running = false;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    private void run() {
+        List<Map.Entry<Integer, List<LedgerEntry>>> drained = new ArrayList<>();
+        while (running || !pending.isEmpty()) {
+            try {
+                Map.Entry<Integer, List<LedgerEntry>> first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                drained.add(first);
+                pending.drainTo(drained);
+                Map<Integer, List<LedgerEntry>> byShard = new TreeMap<>();
+                drained.forEach(batch -> byShard.computeIfAbsent(batch.getKey(), shard -> new ArrayList<>())
+                        .addAll(batch.getValue()));
+                for (Map.Entry<Integer, List<LedgerEntry>> shard : byShard.entrySet()) {
+                    List<LedgerEntry> entries = shard.getValue();
+                    for (int from = 0; from < entries.size(); from += maxBatchSize) {
+                        projectWithRetry(shard.getKey(), entries.subList(from, Math.min(entries.size(), from + maxBatchSize)));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                drained.clear();
+            }
+        }
+    }
+    private void projectWithRetry(int shard, List<LedgerEntry> entries) throws InterruptedException {
+        while (true) {
+            try {
+                project(shard, entries);
+                return;
+            } catch (Exception e) {
+                if (!running) {
+                    log.warn("Ledger projection for shard {} abandoned at shutdown; the journal replays it on restart: {}",
+                            shard, e.getMessage());
+                    return;
+                }
+                log.error("Ledger projection for shard {} failed, will retry: {}", shard, e.getMessage());
+                Thread.sleep(retryDelay.toMillis());
+            }
+        }
+    }
+    private void project(int shard, List<LedgerEntry> entries) {
+        long checkpoint = projectedSequence(shard);
+        List<LedgerEntry> fresh = entries.stream()
+                .filter(entry -> entry.getSequence() > checkpoint)
+                .collect(Collectors.toList());
+        if (fresh.isEmpty()) {
+            return;
+        }
+        long last = fresh.get(fresh.size() - 1).getSequence();
+        projectionTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            Map<String, BigDecimal> balances = new LinkedHashMap<>();
+            List<AccountHistory> history = new ArrayList<>(fresh.size());
+            List<Map.Entry<String, AccountBalanceChangedEvent>> events = new ArrayList<>(fresh.size());
+            for (LedgerEntry entry : fresh) {
+                balances.put(entry.getAccountNumber(), entry.getNewBalance());
+                history.add(AccountHistory.builder()
+                        .accountId(entry.getAccountId())
+                        .accountNumber(entry.getAccountNumber())
+                        .action(entry.getType() == PostingType.DEBIT ? "DEBITED" : "CREDITED")
+                        .oldBalance(entry.getOldBalance())
+                        .newBalance(entry.getNewBalance())
+                        .amount(entry.getAmount())
+                        .transactionId(entry.getTransactionId())
+                        .description(entry.getDescription())
+                        .build());
+                events.add(Map.entry(entry.getAccountNumber(), AccountBalanceChangedEvent.builder()
+                        .accountId(entry.getAccountId())
+                        .accountNumber(entry.getAccountNumber())
+                        .userId(entry.getUserId())
+                        .oldBalance(entry.getOldBalance())
+                        .newBalance(entry.getNewBalance())
+                        .amount(entry.getAmount())
+                        .transactionType(entry.getType().name())
+                        .transactionId(entry.getTransactionId())
+                        .timestamp(entry.getTimestamp())
+                        .build()));
+            }
+            new TreeMap<>(balances).forEach(accountRepository::updateBalance);
+            completeIdempotencyKeys(fresh);
+            historyRepository.saveAll(history);
+            outboxPublisher.publishAll("account-balance-events", events);
+            checkpointRepository.save(LedgerCheckpoint.builder()
+                    .shard(shard)
+                    .projectedSequence(last)
+                    .updatedAt(LocalDateTime.now())
+                    .build());
+        }));
+        projectionBatchSize.record(fresh.size());
+        projected.computeIfAbsent(shard, s -> new AtomicLong()).set(last);
+        fresh.stream()
+                .map(LedgerEntry::getIdempotencyKey)
+                .filter(Objects::nonNull)
+                .forEach(unprojectedKeys::remove);
+    }
+    private void completeIdempotencyKeys(List<LedgerEntry> entries) {
+        List<LedgerEntry> keyed = entries.stream()
+                .filter(entry -> entry.getIdempotencyKey() != null)
+                .collect(Collectors.toList());
+        if (keyed.isEmpty()) {
+            return;
+        }
+        Map<String, Account> accounts = accountRepository.findByAccountNumberIn(keyed.stream()
+                        .map(LedgerEntry::getAccountNumber)
+                        .distinct()
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+        for (LedgerEntry entry : keyed) {
+            Account account = accounts.get(entry.getAccountNumber());
+            if (account == null) {
+                continue;
+            }
+            AccountDTO response = AccountDTO.from(account);
+            response.setBalance(entry.getNewBalance());
+            idempotencyService.completeJournaled(entry.getIdempotencyKey(), entry.getType().name(),
+                    entry.getAccountNumber(), entry.getAmount(), response);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+﻿package com.banking.account.ledger;
+import com.banking.account.dto.AccountDTO;
+import com.banking.account.dto.PostingType;
+import com.banking.account.entity.Account;
+import com.banking.account.entity.AccountStatus;
+import com.banking.account.exception.AccountNotFoundException;
+import com.banking.account.exception.InsufficientBalanceException;
+import com.banking.account.exception.InvalidAccountOperationException;
+import com.banking.account.exception.LedgerUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+@Slf4j
+final class LedgerShard {
+    private static final long TRUNCATE_INTERVAL_NANOS = Duration.ofSeconds(5).toNanos();
+    private final int index;
+    private final int maxBatchSize;
+    private final BlockingQueue<LedgerCommand> ring;
+    private final LedgerJournal journal;
+    private final Function<String, Optional<Account>> loader;
+    private final LedgerProjector projector;
+    private final Map<String, Account> accounts = new HashMap<>();
+    private final Thread thread;
+    private final Timer syncTimer;
+    private final DistributionSummary batchSize;
+    private final Counter applied;
+    private final Counter rejected;
+    private volatile boolean running = true;
+    private volatile long sequence;
+    private long lastTruncation = System.nanoTime();
+    LedgerShard(int index, int ringSize, int maxBatchSize, LedgerJournal journal, long sequence,
+                Function<String, Optional<Account>> loader, LedgerProjector projector, MeterRegistry meterRegistry) {
+        this.index = index;
+        this.maxBatchSize = maxBatchSize;
+        this.ring = new ArrayBlockingQueue<>(ringSize);
+        this.journal = journal;
+        this.sequence = sequence;
+        this.loader = loader;
+        this.projector = projector;
+        this.thread = new Thread(this::run, "ledger-shard-" + index);
+        String shard = String.valueOf(index);
+        this.syncTimer = Timer.builder("ledger.journal.sync")
+                .description("Time to force one batch of journal entries to disk")
+                .tag("shard", shard)
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("ledger.batch.size")
+                .description("Commands applied per journal sync")
+                .tag("shard", shard)
+                .register(meterRegistry);
+        this.applied = Counter.builder("ledger.postings")
+                .tag("shard", shard)
+                .tag("result", "applied")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("ledger.postings")
+                .tag("shard", shard)
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        Gauge.builder("ledger.ring.size", ring, BlockingQueue::size)
+                .description("Commands waiting for the shard thread")
+                .tag("shard", shard)
+                .register(meterRegistry);
+        Gauge.builder("ledger.projection.lag", this, s -> s.sequence - projector.projectedSequence(s.index))
+                .description("Journaled postings not yet projected to the database")
+                .tag("shard", shard)
+                .register(meterRegistry);
+    }
+    void start() {
+        thread.start();
+    }
+    CompletableFuture<AccountDTO> submit(LedgerCommand command) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new LedgerUnavailableException("Ledger shard " + index + " is not running"));
+        }
+        try {
+            ring.put(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(new LedgerUnavailableException("Interrupted while queueing ledger command", e));
+        }
+        if (!running && ring.remove(command)) {
+            return CompletableFuture.failedFuture(new LedgerUnavailableException("Ledger shard " + index + " is not running"));
+        }
+        return command.getFuture();
+    }
+    void stop() {
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+    private void run() {
+        List<LedgerCommand> batch = new ArrayList<>(maxBatchSize);
+        List<LedgerEntry> entries = new ArrayList<>(maxBatchSize);
+        while (running || !ring.isEmpty()) {
+            try {
+                LedgerCommand first = ring.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    ring.drainTo(batch, maxBatchSize - 1);
+                    for (LedgerCommand command : batch) {
+                        apply(command, entries);
+                    }
+                    if (!entries.isEmpty()) {
+                        syncTimer.record(journal::sync);
+                        projector.enqueue(index, List.copyOf(entries));
+                    }
+                    batchSize.record(batch.size());
+                    batch.forEach(LedgerCommand::finish);
+                }
+                truncateProjectedSegments();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                batch.forEach(LedgerCommand::finish);
+                LedgerUnavailableException stopped = new LedgerUnavailableException("Ledger shard " + index + " was interrupted");
+                ring.forEach(command -> command.getFuture().completeExceptionally(stopped));
+                ring.clear();
+            } catch (Exception e) {
+                log.error("Ledger shard {} stopped after a journal failure: {}", index, e.getMessage(), e);
+                running = false;
+                IllegalStateException failure = new IllegalStateException(
+                        "Ledger shard " + index + " failed; the posting outcome is resolved by journal recovery");
+                LedgerUnavailableException stopped = new LedgerUnavailableException("Ledger shard " + index + " failed");
+                batch.forEach(command -> command.getFuture().completeExceptionally(
+                        command.getError() != null ? command.getError() : failure));
+                ring.forEach(command -> command.getFuture().completeExceptionally(stopped));
+                ring.clear();
+            } finally {
+                batch.clear();
+                entries.clear();
+            }
+        }
+    }
+    private void apply(LedgerCommand command, List<LedgerEntry> entries) throws IOException {
+        if (command.isRefresh()) {
+            try {
+                refresh(command.getAccountNumber());
+            } catch (RuntimeException e) {
+                log.warn("Ledger shard {} could not refresh account {}: {}", index, command.getAccountNumber(), e.getMessage());
+                command.fail(e);
+            }
+            return;
+        }
+        Account account;
+        BigDecimal newBalance;
+        try {
+            account = account(command.getAccountNumber());
+            if (account.getStatus() != AccountStatus.ACTIVE) {
+                throw new InvalidAccountOperationException(
+                        "Account is not active. Status: " + account.getStatus());
+            }
+            boolean debit = command.getType() == PostingType.DEBIT;
+            newBalance = debit
+                    ? account.getBalance().subtract(command.getAmount())
+                    : account.getBalance().add(command.getAmount());
+            if (debit && newBalance.compareTo(account.getMinimumBalance()) < 0) {
+                throw new InsufficientBalanceException(
+                        String.format("Insufficient balance. Available: %s, Required: %s, Minimum: %s",
+                                account.getBalance(), command.getAmount(), account.getMinimumBalance()));
+            }
+        } catch (AccountNotFoundException | InvalidAccountOperationException | InsufficientBalanceException e) {
+            rejected.increment();
+            command.fail(e);
+            return;
+        } catch (RuntimeException e) {
+            rejected.increment();
+            command.fail(new LedgerUnavailableException(
+                    "Could not load account " + command.getAccountNumber() + ": " + e.getMessage(), e));
+            return;
+        }
+        LedgerEntry entry = LedgerEntry.builder()
+                .sequence(sequence + 1)
+                .accountId(account.getId())
+                .userId(account.getUserId())
+                .accountNumber(account.getAccountNumber())
+                .type(command.getType())
+                .amount(command.getAmount())
+                .oldBalance(account.getBalance())
+                .newBalance(newBalance)
+                .transactionId(command.getTransactionId())
+                .description(command.getDescription())
+                .idempotencyKey(command.getIdempotencyKey())
+                .timestamp(LocalDateTime.now())
+                .build();
+        journal.append(entry);
+        sequence = entry.getSequence();
+        account.setBalance(newBalance);
+        entries.add(entry);
+        applied.increment();
+        command.succeed(AccountDTO.from(account));
+    }
+    private Account account(String accountNumber) {
+        Account account = accounts.get(accountNumber);
+        if (account == null) {
+            account = loader.apply(accountNumber)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
+            accounts.put(accountNumber, account);
+        }
+        return account;
+    }
+    private void refresh(String accountNumber) {
+        Account resident = accounts.get(accountNumber);
+        if (resident == null) {
+            return;
+        }
+        loader.apply(accountNumber).ifPresentOrElse(fresh -> {
+            fresh.setBalance(resident.getBalance());
+            accounts.put(accountNumber, fresh);
+        }, () -> accounts.remove(accountNumber));
+    }
+    private void truncateProjectedSegments() {
+        long now = System.nanoTime();
+        if (now - lastTruncation >= TRUNCATE_INTERVAL_NANOS) {
+            lastTruncation = now;
+            try {
+                journal.truncateBefore(projector.projectedSequence(index));
+            } catch (IOException e) {
+                log.warn("Ledger shard {} could not delete projected journal segments: {}", index, e.getMessage());
+            }
+        }
+    }
+}
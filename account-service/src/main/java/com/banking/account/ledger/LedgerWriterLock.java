@@ -0,0 +1,42 @@
+﻿package com.banking.account.ledger;
+import lombok.extern.slf4j.Slf4j;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+@Slf4j
+final class LedgerWriterLock implements AutoCloseable {
+    private static final int LOCK_NAMESPACE = 0x4c454447;
+    private final Connection connection;
+    LedgerWriterLock(DataSource dataSource) throws SQLException {
+        this.connection = dataSource.getConnection();
+        this.connection.setAutoCommit(true);
+    }
+    void acquire(int shard) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?, ?)")) {
+            statement.setInt(1, LOCK_NAMESPACE);
+            statement.setInt(2, shard);
+            try (ResultSet result = statement.executeQuery()) {
+                if (!result.next() || !result.getBoolean(1)) {
+                    throw new IllegalStateException("Ledger shard " + shard + " is owned by another writer");
+                }
+            }
+        }
+    }
+    @Override
+    public void close() {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT pg_advisory_unlock_all()");
+        } catch (SQLException e) {
+            log.warn("Could not release ledger shard locks: {}", e.getMessage());
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.warn("Could not close the ledger lock connection: {}", e.getMessage());
+            }
+        }
+    }
+}
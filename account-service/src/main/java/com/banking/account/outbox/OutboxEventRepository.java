@@ -0,0 +1,31 @@
+﻿package com.banking.account.outbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:namespace, :partition)", nativeQuery = true)
+    boolean tryLockPartition(@Param("namespace") int namespace, @Param("partition") int partition);
+    @Query(value = "SELECT * FROM outbox_events WHERE sent_at IS NULL AND failed_at IS NULL "
+            + "AND (hashtext(COALESCE(message_key, '')) & 2147483647) % :partitions = :partition "
+            + "ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<OutboxEvent> findPendingBatch(@Param("partitions") int partitions, @Param("partition") int partition,
+                                       @Param("limit") int limit);
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.sentAt = :sentAt WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.failedAt = :failedAt, e.failureReason = :reason WHERE e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("failedAt") LocalDateTime failedAt, @Param("reason") String reason);
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.sentAt < :before")
+    int purgeSentBefore(@Param("before") LocalDateTime before);
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.sentAt IS NULL AND e.failedAt IS NULL")
+    LocalDateTime findOldestPendingCreatedAt();
+}
@@ -0,0 +1,29 @@
+﻿package com.banking.account.repository;
+import com.banking.account.entity.AccountBalanceSlot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+@Repository
+public interface AccountBalanceSlotRepository extends JpaRepository<AccountBalanceSlot, Long> {
+    @Query(value = "UPDATE account_balance_slots SET balance = balance + :amount "
+            + "WHERE account_number = :accountNumber AND slot_index = :slotIndex RETURNING balance", nativeQuery = true)
+    Optional<BigDecimal> creditSlot(@Param("accountNumber") String accountNumber,
+                   @Param("slotIndex") int slotIndex,
+                   @Param("amount") BigDecimal amount);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountBalanceSlot s WHERE s.accountNumber = :accountNumber ORDER BY s.slotIndex")
+    List<AccountBalanceSlot> findByAccountNumberForUpdate(@Param("accountNumber") String accountNumber);
+    @Query("SELECT a.balance + COALESCE((SELECT SUM(s.balance) FROM AccountBalanceSlot s "
+            + "WHERE s.accountNumber = a.accountNumber), 0) FROM Account a WHERE a.accountNumber = :accountNumber")
+    BigDecimal totalBalance(@Param("accountNumber") String accountNumber);
+    @Modifying
+    @Query("DELETE FROM AccountBalanceSlot s WHERE s.accountNumber = :accountNumber")
+    int deleteByAccountNumber(@Param("accountNumber") String accountNumber);
+}
@@ -3,11 +3,21 @@ import com.banking.account.entity.AccountHistory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 @Repository
 public interface AccountHistoryRepository extends JpaRepository<AccountHistory, Long> {
     List<AccountHistory> findByAccountIdOrderByCreatedAtDesc(Long accountId);
+    @Query(value = "SELECT * FROM account_history WHERE account_id = :accountId "
+            + "AND (created_at, id) < (:createdAt, :id) ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<AccountHistory> findPageByAccountId(
+            @Param("accountId") Long accountId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            @Param("limit") int limit);
     Page<AccountHistory> findByAccountNumber(String accountNumber, Pageable pageable);
     List<AccountHistory> findByTransactionId(String transactionId);
 }
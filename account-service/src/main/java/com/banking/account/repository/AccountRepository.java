@@ -4,9 +4,12 @@ import com.banking.account.entity.AccountStatus;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 @Repository
@@ -15,6 +18,16 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT a FROM Account a WHERE a.accountNumber = :accountNumber")
     Optional<Account> findByAccountNumberForUpdate(@Param("accountNumber") String accountNumber);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber IN :accountNumbers ORDER BY a.accountNumber")
+    List<Account> findAllByAccountNumberInForUpdate(@Param("accountNumbers") Collection<String> accountNumbers);
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
+    @Modifying
+    @Query("UPDATE Account a SET a.balance = :balance, a.version = a.version + 1, a.updatedAt = CURRENT_TIMESTAMP "
+            + "WHERE a.accountNumber = :accountNumber")
+    int updateBalance(@Param("accountNumber") String accountNumber, @Param("balance") BigDecimal balance);
+    @Query("SELECT a.accountNumber FROM Account a WHERE a.balanceSlots > 0")
+    List<String> findStripedAccountNumbers();
     List<Account> findByUserId(Long userId);
     List<Account> findByStatus(AccountStatus status);
     boolean existsByAccountNumber(String accountNumber);
@@ -0,0 +1,58 @@
+﻿package com.banking.account.repository;
+import com.banking.account.entity.Account;
+import com.banking.account.entity.AccountStatus;
+import com.banking.account.entity.AccountType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+@Repository
+@RequiredArgsConstructor
+public class ConditionalPostingRepository {
+    private static final String COLUMNS = "id, account_number, user_id, account_type, balance, currency, status, "
+            + "interest_rate, minimum_balance, balance_slots, created_at, updated_at, version";
+    private static final String DEBIT_SQL = "UPDATE accounts SET balance = balance - ?, "
+            + "version = COALESCE(version, 0) + 1, updated_at = ? "
+            + "WHERE account_number = ? AND status = 'ACTIVE' AND COALESCE(balance_slots, 0) = 0 "
+            + "AND balance - ? >= minimum_balance "
+            + "RETURNING " + COLUMNS;
+    private static final String CREDIT_SQL = "UPDATE accounts SET balance = balance + ?, "
+            + "version = COALESCE(version, 0) + 1, updated_at = ? "
+            + "WHERE account_number = ? AND status = 'ACTIVE' AND COALESCE(balance_slots, 0) = 0 "
+            + "RETURNING " + COLUMNS;
+    private static final String SELECT_SQL = "SELECT " + COLUMNS + " FROM accounts WHERE account_number = ?";
+    private static final RowMapper<Account> ACCOUNT_MAPPER = (rs, rowNum) -> Account.builder()
+            .id(rs.getLong("id"))
+            .accountNumber(rs.getString("account_number"))
+            .userId(rs.getLong("user_id"))
+            .accountType(AccountType.valueOf(rs.getString("account_type")))
+            .balance(rs.getBigDecimal("balance"))
+            .currency(rs.getString("currency"))
+            .status(AccountStatus.valueOf(rs.getString("status")))
+            .interestRate(rs.getBigDecimal("interest_rate"))
+            .minimumBalance(rs.getBigDecimal("minimum_balance"))
+            .balanceSlots(rs.getInt("balance_slots"))
+            .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+            .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+            .version(rs.getLong("version"))
+            .build();
+    private final JdbcTemplate jdbcTemplate;
+    public Optional<Account> debit(String accountNumber, BigDecimal amount) {
+        return jdbcTemplate.query(DEBIT_SQL, ACCOUNT_MAPPER,
+                amount, Timestamp.valueOf(LocalDateTime.now()), accountNumber, amount).stream().findFirst();
+    }
+    public Optional<Account> credit(String accountNumber, BigDecimal amount) {
+        return jdbcTemplate.query(CREDIT_SQL, ACCOUNT_MAPPER,
+                amount, Timestamp.valueOf(LocalDateTime.now()), accountNumber).stream().findFirst();
+    }
+    public Optional<Account> findCurrent(String accountNumber) {
+        return jdbcTemplate.query(SELECT_SQL, ACCOUNT_MAPPER, accountNumber).stream().findFirst();
+    }
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
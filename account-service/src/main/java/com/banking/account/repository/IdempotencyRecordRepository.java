@@ -0,0 +1,59 @@
+﻿package com.banking.account.repository;
+import com.banking.account.entity.IdempotencyRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, operation, account_number, request_hash, created_at, expires_at) "
+            + "VALUES (:key, :operation, :accountNumber, :requestHash, :createdAt, :expiresAt) "
+            + "ON CONFLICT (idempotency_key) DO NOTHING", nativeQuery = true)
+    int claim(@Param("key") String key,
+              @Param("operation") String operation,
+              @Param("accountNumber") String accountNumber,
+              @Param("requestHash") String requestHash,
+              @Param("createdAt") LocalDateTime createdAt,
+              @Param("expiresAt") LocalDateTime expiresAt);
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.response = :response, r.resultHash = :resultHash WHERE r.idempotencyKey = :key")
+    int complete(@Param("key") String key,
+                 @Param("response") String response,
+                 @Param("resultHash") String resultHash);
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, operation, account_number, request_hash, "
+            + "response, result_hash, created_at, expires_at) "
+            + "VALUES (:key, :operation, :accountNumber, :requestHash, :response, :resultHash, :createdAt, :expiresAt) "
+            + "ON CONFLICT (idempotency_key) DO UPDATE SET response = EXCLUDED.response, result_hash = EXCLUDED.result_hash "
+            + "WHERE idempotency_keys.response IS NULL", nativeQuery = true)
+    int completeOrInsert(@Param("key") String key,
+                         @Param("operation") String operation,
+                         @Param("accountNumber") String accountNumber,
+                         @Param("requestHash") String requestHash,
+                         @Param("response") String response,
+                         @Param("resultHash") String resultHash,
+                         @Param("createdAt") LocalDateTime createdAt,
+                         @Param("expiresAt") LocalDateTime expiresAt);
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.response IS NULL")
+    int release(@Param("key") String key);
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey IN :keys AND r.response IS NULL")
+    int releaseAll(@Param("keys") Collection<String> keys);
+    @Query("SELECT r.idempotencyKey FROM IdempotencyRecord r WHERE r.response IS NULL AND r.createdAt < :before "
+            + "ORDER BY r.createdAt")
+    List<String> findUnfinishedKeys(@Param("before") LocalDateTime before, Pageable pageable);
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.response IS NULL AND r.createdAt < :before")
+    int releaseUnfinished(@Param("before") LocalDateTime before);
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE idempotency_key IN "
+            + "(SELECT idempotency_key FROM idempotency_keys WHERE expires_at < :now LIMIT :limit)", nativeQuery = true)
+    int purgeExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
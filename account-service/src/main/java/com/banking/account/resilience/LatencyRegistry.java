@@ -0,0 +1,49 @@
+﻿package com.banking.account.resilience;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+@Getter
+@Component
+public class LatencyRegistry {
+    private final MeterRegistry meterRegistry;
+    private final double hedgePercentile;
+    private final double timeoutPercentile;
+    private final double timeoutMultiplier;
+    private final Duration minTimeout;
+    private final Duration maxTimeout;
+    private final Duration minHedgeDelay;
+    private final long minSamples;
+    private final Map<String, DependencyLatency> dependencies = new ConcurrentHashMap<>();
+    public LatencyRegistry(MeterRegistry meterRegistry,
+                           @Value("${resilience.latency.hedge-percentile:0.95}") double hedgePercentile,
+                           @Value("${resilience.latency.timeout-percentile:0.99}") double timeoutPercentile,
+                           @Value("${resilience.latency.timeout-multiplier:3}") double timeoutMultiplier,
+                           @Value("${resilience.latency.min-timeout:PT0.2S}") Duration minTimeout,
+                           @Value("${resilience.latency.max-timeout:PT5S}") Duration maxTimeout,
+                           @Value("${resilience.latency.min-hedge-delay:PT0.01S}") Duration minHedgeDelay,
+                           @Value("${resilience.latency.min-samples:100}") long minSamples) {
+        this.meterRegistry = meterRegistry;
+        this.hedgePercentile = hedgePercentile;
+        this.timeoutPercentile = timeoutPercentile;
+        this.timeoutMultiplier = timeoutMultiplier;
+        this.minTimeout = minTimeout;
+        this.maxTimeout = maxTimeout;
+        this.minHedgeDelay = minHedgeDelay;
+        this.minSamples = minSamples;
+    }
+    public DependencyLatency forDependency(String dependency, String operation) {
+        return dependencies.computeIfAbsent(dependency + ":" + operation, key -> new DependencyLatency(
+                Timer.builder("dependency.latency")
+                        .description("Latency of calls to a downstream service")
+                        .tag("dependency", dependency)
+                        .tag("operation", operation)
+                        .publishPercentiles(hedgePercentile, timeoutPercentile)
+                        .register(meterRegistry),
+                this));
+    }
+}
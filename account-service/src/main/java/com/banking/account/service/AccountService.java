@@ -1,4 +1,5 @@
 ﻿package com.banking.account.service;
+import com.banking.account.cache.AccountReadCache;
 import com.banking.account.client.UserServiceClient;
 import com.banking.account.dto.*;
 import com.banking.account.entity.Account;
@@ -6,37 +7,74 @@ import com.banking.account.entity.AccountHistory;
 import com.banking.account.entity.AccountStatus;
 import com.banking.account.event.AccountBalanceChangedEvent;
 import com.banking.account.event.AccountCreatedEvent;
+import com.banking.account.event.AccountStatusChangedEvent;
 import com.banking.account.exception.AccountNotFoundException;
+import com.banking.account.exception.DuplicateRequestException;
 import com.banking.account.exception.InsufficientBalanceException;
 import com.banking.account.exception.InvalidAccountOperationException;
+import com.banking.account.exception.LocalTransferUnavailableException;
+import com.banking.account.id.AccountNumberAllocator;
+import com.banking.account.ledger.LedgerEngine;
+import com.banking.account.outbox.OutboxPublisher;
 import com.banking.account.repository.AccountHistoryRepository;
 import com.banking.account.repository.AccountRepository;
+import com.banking.account.repository.ConditionalPostingRepository;
+import com.banking.persistence.PrimaryRead;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class AccountService {
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int CONDITIONAL_ATTEMPTS = 3;
     private final AccountRepository accountRepository;
     private final AccountHistoryRepository historyRepository;
     private final UserServiceClient userServiceClient;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxPublisher outboxPublisher;
+    private final HotAccountService hotAccountService;
+    private final EntityManager entityManager;
+    private final AccountReadCache accountReadCache;
+    private final IdempotencyService idempotencyService;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final ConditionalPostingRepository conditionalPostingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<GroupCommitExecutor> groupCommitExecutor;
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+    @Value("${account.posting.mode:PESSIMISTIC}")
+    private PostingMode postingMode;
     public AccountDTO createAccount(CreateAccountRequest request) {
         log.info("Creating account for user: {}", request.getUserId());
         UserDTO user = userServiceClient.getUserById(request.getUserId());
         if (user == null || !user.getIsActive()) {
             throw new InvalidAccountOperationException("User not found or inactive: " + request.getUserId());
         }
-        String accountNumber = generateAccountNumber();
+        String accountNumber = accountNumberAllocator.nextAccountNumber();
         Account account = Account.builder()
                 .accountNumber(accountNumber)
                 .userId(request.getUserId())
@@ -55,36 +93,121 @@ public class AccountService {
     }
     @Transactional(readOnly = true)
     public AccountDTO getAccountByNumber(String accountNumber) {
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
-        return AccountDTO.from(account);
+        return loadAccount(accountNumber);
+    }
+    @PrimaryRead
+    @Transactional(readOnly = true)
+    public List<AccountDTO> lookupAccounts(List<String> accountNumbers) {
+        Map<String, AccountDTO> found = loadAccounts(new HashSet<>(accountNumbers));
+        return accountNumbers.stream()
+                .distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
     @Transactional(readOnly = true)
     public List<AccountDTO> getAccountsByUserId(Long userId) {
         return accountRepository.findByUserId(userId).stream()
-                .map(AccountDTO::from)
+                .map(this::toDto)
                 .collect(Collectors.toList());
     }
     @Transactional(readOnly = true)
     public BalanceResponse getBalance(String accountNumber) {
-        Account account = accountRepository.findByAccountNumber(accountNumber)
+        AccountMetadata account = accountReadCache.get(accountNumber, this::loadMetadata);
+        BigDecimal balance = hotAccountService.currentBalance(accountNumber)
                 .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
-        BigDecimal availableBalance = account.getBalance().subtract(account.getMinimumBalance());
+        BigDecimal availableBalance = balance.subtract(account.getMinimumBalance());
         if (availableBalance.compareTo(BigDecimal.ZERO) < 0) {
             availableBalance = BigDecimal.ZERO;
         }
         return BalanceResponse.builder()
                 .accountNumber(account.getAccountNumber())
-                .balance(account.getBalance())
+                .balance(balance)
                 .currency(account.getCurrency())
                 .availableBalance(availableBalance)
                 .build();
     }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AccountDTO debitAccount(String accountNumber, TransactionRequest request) {
         log.info("Debiting account {}: amount={}", accountNumber, request.getAmount());
+        return postIdempotently(accountNumber, PostingType.DEBIT, request);
+    }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AccountDTO creditAccount(String accountNumber, TransactionRequest request) {
+        log.info("Crediting account {}: amount={}", accountNumber, request.getAmount());
+        return postIdempotently(accountNumber, PostingType.CREDIT, request);
+    }
+    private AccountDTO postIdempotently(String accountNumber, PostingType type, TransactionRequest request) {
+        if (postingMode == PostingMode.LEDGER) {
+            return postToLedger(accountNumber, type, request);
+        }
+        if (postingMode == PostingMode.GROUP_COMMIT) {
+            return groupCommitExecutor.getObject().execute(accountNumber, request.getTransactionId() != null,
+                    () -> applyGrouped(accountNumber, type, request));
+        }
+        return transactionTemplate.execute(status -> applyIdempotently(accountNumber, type, request));
+    }
+    private AccountDTO applyIdempotently(String accountNumber, PostingType type, TransactionRequest request) {
+        Optional<AccountDTO> replay = idempotencyService.begin(type.name(), accountNumber, request);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+        AccountDTO result = post(accountNumber, type, request);
+        idempotencyService.complete(type.name(), accountNumber, request, result);
+        return result;
+    }
+    private GroupCommitExecutor.Outcome<AccountDTO> applyGrouped(String accountNumber, PostingType type,
+                                                                 TransactionRequest request) {
+        IdempotencyService.Claim claim = idempotencyService.claim(type.name(), accountNumber, request);
+        if (claim.rejection() != null) {
+            return GroupCommitExecutor.Outcome.rejected(claim.rejection());
+        }
+        if (claim.replay() != null) {
+            return GroupCommitExecutor.Outcome.applied(claim.replay());
+        }
+        AccountDTO result;
+        try {
+            result = post(accountNumber, type, request);
+        } catch (AccountNotFoundException | InvalidAccountOperationException | InsufficientBalanceException e) {
+            return GroupCommitExecutor.Outcome.rejected(e);
+        }
+        idempotencyService.complete(type.name(), accountNumber, request, result);
+        return GroupCommitExecutor.Outcome.applied(result);
+    }
+    private AccountDTO postToLedger(String accountNumber, PostingType type, TransactionRequest request) {
+        Optional<AccountDTO> replay = transactionTemplate.execute(status ->
+                idempotencyService.begin(type.name(), accountNumber, request));
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+        AccountDTO result;
+        try {
+            result = ledgerEngine.getObject().post(accountNumber, type, request);
+        } catch (RuntimeException e) {
+            if (LedgerEngine.neverJournaled(e)) {
+                transactionTemplate.executeWithoutResult(status -> idempotencyService.release(type.name(), accountNumber, request));
+            }
+            throw e;
+        }
+        transactionTemplate.executeWithoutResult(status -> idempotencyService.complete(type.name(), accountNumber, request, result));
+        return result;
+    }
+    private AccountDTO post(String accountNumber, PostingType type, TransactionRequest request) {
+        return switch (postingMode) {
+            case LEDGER -> ledgerEngine.getObject().post(accountNumber, type, request);
+            case CONDITIONAL -> applyConditional(accountNumber, type, request);
+            case PESSIMISTIC, GROUP_COMMIT -> type == PostingType.DEBIT
+                    ? applyDebit(accountNumber, request)
+                    : applyCredit(accountNumber, request);
+        };
+    }
+    private AccountDTO applyDebit(String accountNumber, TransactionRequest request) {
         Account account = accountRepository.findByAccountNumberForUpdate(accountNumber)
                 .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
         validateAccountActive(account);
+        if (account.isStriped()) {
+            hotAccountService.consolidate(account);
+        }
         BigDecimal newBalance = account.getBalance().subtract(request.getAmount());
         if (newBalance.compareTo(account.getMinimumBalance()) < 0) {
             throw new InsufficientBalanceException(
@@ -101,10 +224,23 @@ public class AccountService {
         log.info("Account {} debited. New balance: {}", accountNumber, newBalance);
         return AccountDTO.from(updatedAccount);
     }
-    public AccountDTO creditAccount(String accountNumber, TransactionRequest request) {
-        log.info("Crediting account {}: amount={}", accountNumber, request.getAmount());
-        Account account = accountRepository.findByAccountNumberForUpdate(accountNumber)
-                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
+    private AccountDTO applyCredit(String accountNumber, TransactionRequest request) {
+        Account account;
+        if (hotAccountService.isStriped(accountNumber)) {
+            account = accountRepository.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
+            validateAccountActive(account);
+            if (account.isStriped()) {
+                Optional<HotAccountService.SlotCredit> slotCredit = hotAccountService.credit(account, request.getAmount());
+                if (slotCredit.isPresent()) {
+                    return creditedViaSlot(account, slotCredit.get(), request);
+                }
+            }
+            entityManager.refresh(account, LockModeType.PESSIMISTIC_WRITE);
+        } else {
+            account = accountRepository.findByAccountNumberForUpdate(accountNumber)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
+        }
         validateAccountActive(account);
         BigDecimal oldBalance = account.getBalance();
         BigDecimal newBalance = oldBalance.add(request.getAmount());
@@ -117,6 +253,117 @@ public class AccountService {
         log.info("Account {} credited. New balance: {}", accountNumber, newBalance);
         return AccountDTO.from(updatedAccount);
     }
+    private AccountDTO applyConditional(String accountNumber, PostingType type, TransactionRequest request) {
+        boolean debit = type == PostingType.DEBIT;
+        if (!debit && hotAccountService.isStriped(accountNumber)) {
+            return applyCredit(accountNumber, request);
+        }
+        BigDecimal amount = request.getAmount();
+        for (int attempt = 0; attempt < CONDITIONAL_ATTEMPTS; attempt++) {
+            Optional<Account> updated = debit
+                    ? conditionalPostingRepository.debit(accountNumber, amount)
+                    : conditionalPostingRepository.credit(accountNumber, amount);
+            if (updated.isPresent()) {
+                Account account = updated.get();
+                BigDecimal newBalance = account.getBalance();
+                BigDecimal oldBalance = debit ? newBalance.add(amount) : newBalance.subtract(amount);
+                recordHistory(account, debit ? "DEBITED" : "CREDITED", oldBalance, newBalance,
+                        amount, request.getTransactionId(), request.getDescription());
+                publishBalanceChangedEvent(account, oldBalance, newBalance,
+                        amount, type.name(), request.getTransactionId());
+                log.info("Account {} {} with a conditional update. New balance: {}",
+                        accountNumber, debit ? "debited" : "credited", newBalance);
+                return AccountDTO.from(account);
+            }
+            Account current = conditionalPostingRepository.findCurrent(accountNumber)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
+            validateAccountActive(current);
+            if (current.isStriped()) {
+                break;
+            }
+            if (debit && current.getBalance().subtract(amount).compareTo(current.getMinimumBalance()) < 0) {
+                throw new InsufficientBalanceException(
+                        String.format("Insufficient balance. Available: %s, Required: %s, Minimum: %s",
+                                current.getBalance(), amount, current.getMinimumBalance()));
+            }
+        }
+        return debit ? applyDebit(accountNumber, request) : applyCredit(accountNumber, request);
+    }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AccountDTO transfer(TransferRequest request) {
+        log.info("Transferring {} from {} to {}", request.getAmount(), request.getFromAccount(), request.getToAccount());
+        if (postingMode == PostingMode.LEDGER) {
+            throw new LocalTransferUnavailableException("Local transfers are not available in LEDGER posting mode");
+        }
+        if (request.getFromAccount().equals(request.getToAccount())) {
+            throw new InvalidAccountOperationException("Cannot transfer to the same account");
+        }
+        TransactionRequest debit = TransactionRequest.builder()
+                .amount(request.getAmount())
+                .transactionId(request.getTransactionId())
+                .build();
+        return transactionTemplate.execute(status -> {
+            Optional<AccountDTO> replay = idempotencyService.begin("TRANSFER", request.getFromAccount(), debit);
+            if (replay.isPresent()) {
+                return replay.get();
+            }
+            AccountDTO result = applyTransfer(request);
+            idempotencyService.complete("TRANSFER", request.getFromAccount(), debit, result);
+            return result;
+        });
+    }
+    private AccountDTO applyTransfer(TransferRequest request) {
+        String fromAccount = request.getFromAccount();
+        String toAccount = request.getToAccount();
+        Map<String, Account> accounts = accountRepository.findAllByAccountNumberInForUpdate(List.of(fromAccount, toAccount))
+                .stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+        Account source = accounts.get(fromAccount);
+        Account destination = accounts.get(toAccount);
+        if (source == null || destination == null) {
+            throw new LocalTransferUnavailableException("Account not held locally: " + (source == null ? fromAccount : toAccount));
+        }
+        validateAccountActive(source);
+        validateAccountActive(destination);
+        accounts.values().stream()
+                .filter(Account::isStriped)
+                .sorted(Comparator.comparing(Account::getAccountNumber))
+                .forEach(hotAccountService::consolidate);
+        BigDecimal amount = request.getAmount();
+        BigDecimal sourceOldBalance = source.getBalance();
+        BigDecimal sourceNewBalance = sourceOldBalance.subtract(amount);
+        if (sourceNewBalance.compareTo(source.getMinimumBalance()) < 0) {
+            throw new InsufficientBalanceException(
+                    String.format("Insufficient balance. Available: %s, Required: %s, Minimum: %s",
+                            sourceOldBalance, amount, source.getMinimumBalance()));
+        }
+        BigDecimal destinationOldBalance = destination.getBalance();
+        BigDecimal destinationNewBalance = destinationOldBalance.add(amount);
+        source.setBalance(sourceNewBalance);
+        destination.setBalance(destinationNewBalance);
+        String transactionId = request.getTransactionId();
+        recordHistory(source, "DEBITED", sourceOldBalance, sourceNewBalance,
+                amount, transactionId, "Transfer to " + toAccount);
+        recordHistory(destination, "CREDITED", destinationOldBalance, destinationNewBalance,
+                amount, transactionId, "Transfer from " + fromAccount);
+        publishBalanceChangedEvent(source, sourceOldBalance, sourceNewBalance, amount, "DEBIT", transactionId);
+        publishBalanceChangedEvent(destination, destinationOldBalance, destinationNewBalance, amount, "CREDIT", transactionId);
+        log.info("Transferred {} from {} to {} in one local transaction", amount, fromAccount, toAccount);
+        return AccountDTO.from(source);
+    }
+    public AccountDTO configureBalanceStriping(String accountNumber, Integer slots) {
+        if (slots == null) {
+            throw new InvalidAccountOperationException("Number of balance slots is required");
+        }
+        if (postingMode == PostingMode.LEDGER) {
+            throw new InvalidAccountOperationException("Balance striping is not available in LEDGER posting mode");
+        }
+        log.info("Configuring account {} with {} balance slots", accountNumber, slots);
+        Account account = accountRepository.findByAccountNumberForUpdate(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
+        hotAccountService.configure(account, slots);
+        return AccountDTO.from(accountRepository.save(account));
+    }
     public AccountDTO updateAccountStatus(String accountNumber, AccountStatus newStatus) {
         log.info("Updating account {} status to: {}", accountNumber, newStatus);
         Account account = accountRepository.findByAccountNumber(accountNumber)
@@ -133,8 +380,208 @@ public class AccountService {
                 .description("Account status changed from " + oldStatus + " to " + newStatus)
                 .build();
         historyRepository.save(history);
+        publishStatusChangedEvent(updatedAccount, oldStatus);
+        accountReadCache.evictAfterCommit(accountNumber);
+        if (postingMode == PostingMode.LEDGER) {
+            refreshLedgerAfterCommit(accountNumber);
+        }
         return AccountDTO.from(updatedAccount);
     }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchPostingResponse applyPostings(BatchPostingRequest request) {
+        List<PostingRequest> postings = request.getPostings();
+        log.info("Applying batch of {} postings", postings.size());
+        if (postingMode == PostingMode.LEDGER) {
+            return applyPostingsViaLedger(postings);
+        }
+        return transactionTemplate.execute(status -> applyPostingsLocked(postings));
+    }
+    private BatchPostingResponse applyPostingsLocked(List<PostingRequest> postings) {
+        List<String> accountNumbers = postings.stream()
+                .map(PostingRequest::getAccountNumber)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        Map<String, Account> accounts = accountRepository.findAllByAccountNumberInForUpdate(accountNumbers).stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+        accounts.values().stream()
+                .filter(Account::isStriped)
+                .sorted(Comparator.comparing(Account::getAccountNumber))
+                .forEach(hotAccountService::consolidate);
+        List<PostingResult> results = new ArrayList<>(postings.size());
+        List<AccountHistory> history = new ArrayList<>(postings.size());
+        List<AccountBalanceChangedEvent> events = new ArrayList<>(postings.size());
+        for (int i = 0; i < postings.size(); i++) {
+            PostingRequest posting = postings.get(i);
+            TransactionRequest keyed = toTransactionRequest(posting);
+            boolean claimed = false;
+            try {
+                Optional<AccountDTO> replay = idempotencyService.begin(posting.getType().name(),
+                        posting.getAccountNumber(), keyed);
+                if (replay.isPresent()) {
+                    results.add(succeededResult(i, posting, replay.get()));
+                    continue;
+                }
+                claimed = true;
+                Account account = accounts.get(posting.getAccountNumber());
+                if (account == null) {
+                    throw new AccountNotFoundException("Account not found: " + posting.getAccountNumber());
+                }
+                validateAccountActive(account);
+                BigDecimal oldBalance = account.getBalance();
+                boolean debit = posting.getType() == PostingType.DEBIT;
+                BigDecimal newBalance = debit ? oldBalance.subtract(posting.getAmount()) : oldBalance.add(posting.getAmount());
+                if (debit && newBalance.compareTo(account.getMinimumBalance()) < 0) {
+                    throw new InsufficientBalanceException(
+                            String.format("Insufficient balance. Available: %s, Required: %s, Minimum: %s",
+                                    oldBalance, posting.getAmount(), account.getMinimumBalance()));
+                }
+                account.setBalance(newBalance);
+                idempotencyService.complete(posting.getType().name(), posting.getAccountNumber(), keyed,
+                        AccountDTO.from(account));
+                history.add(AccountHistory.builder()
+                        .accountId(account.getId())
+                        .accountNumber(account.getAccountNumber())
+                        .action(debit ? "DEBITED" : "CREDITED")
+                        .oldBalance(oldBalance)
+                        .newBalance(newBalance)
+                        .amount(posting.getAmount())
+                        .transactionId(posting.getTransactionId())
+                        .description(posting.getDescription())
+                        .build());
+                events.add(buildBalanceChangedEvent(account, oldBalance, newBalance,
+                        posting.getAmount(), posting.getType().name(), posting.getTransactionId()));
+                results.add(PostingResult.builder()
+                        .index(i)
+                        .accountNumber(posting.getAccountNumber())
+                        .transactionId(posting.getTransactionId())
+                        .success(true)
+                        .oldBalance(oldBalance)
+                        .newBalance(newBalance)
+                        .build());
+            } catch (AccountNotFoundException | InvalidAccountOperationException | InsufficientBalanceException
+                     | DuplicateRequestException e) {
+                if (claimed) {
+                    idempotencyService.release(posting.getType().name(), posting.getAccountNumber(), keyed);
+                }
+                results.add(failedResult(i, posting, e));
+            }
+        }
+        historyRepository.saveAll(history);
+        outboxPublisher.publishAll("account-balance-events", events.stream()
+                .map(event -> Map.entry(event.getAccountNumber(), event))
+                .collect(Collectors.toList()));
+        int succeeded = (int) results.stream().filter(PostingResult::isSuccess).count();
+        log.info("Batch applied: {} succeeded, {} failed", succeeded, postings.size() - succeeded);
+        return BatchPostingResponse.builder()
+                .total(postings.size())
+                .succeeded(succeeded)
+                .failed(postings.size() - succeeded)
+                .results(results)
+                .build();
+    }
+    private BatchPostingResponse applyPostingsViaLedger(List<PostingRequest> postings) {
+        LedgerEngine engine = ledgerEngine.getObject();
+        List<TransactionRequest> keyed = postings.stream()
+                .map(this::toTransactionRequest)
+                .collect(Collectors.toList());
+        List<CompletableFuture<AccountDTO>> submitted = transactionTemplate.execute(status -> {
+            List<CompletableFuture<AccountDTO>> replays = new ArrayList<>(postings.size());
+            for (int i = 0; i < postings.size(); i++) {
+                PostingRequest posting = postings.get(i);
+                try {
+                    replays.add(idempotencyService.begin(posting.getType().name(), posting.getAccountNumber(), keyed.get(i))
+                            .map(CompletableFuture::completedFuture)
+                            .orElse(null));
+                } catch (DuplicateRequestException e) {
+                    replays.add(CompletableFuture.failedFuture(e));
+                }
+            }
+            return replays;
+        });
+        boolean[] claimed = new boolean[postings.size()];
+        for (int i = 0; i < postings.size(); i++) {
+            if (submitted.get(i) == null) {
+                claimed[i] = true;
+                submitted.set(i, engine.submit(postings.get(i).getAccountNumber(), postings.get(i).getType(), keyed.get(i)));
+            }
+        }
+        List<PostingResult> results = new ArrayList<>(postings.size());
+        List<Runnable> settlements = new ArrayList<>(postings.size());
+        for (int i = 0; i < postings.size(); i++) {
+            PostingRequest posting = postings.get(i);
+            TransactionRequest request = keyed.get(i);
+            try {
+                AccountDTO account;
+                try {
+                    account = submitted.get(i).join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+                if (claimed[i]) {
+                    settlements.add(() -> idempotencyService.complete(posting.getType().name(),
+                            posting.getAccountNumber(), request, account));
+                }
+                results.add(succeededResult(i, posting, account));
+            } catch (RuntimeException e) {
+                if (claimed[i] && LedgerEngine.neverJournaled(e)) {
+                    settlements.add(() -> idempotencyService.release(posting.getType().name(),
+                            posting.getAccountNumber(), request));
+                }
+                results.add(failedResult(i, posting, e));
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> settlements.forEach(Runnable::run));
+        int succeeded = (int) results.stream().filter(PostingResult::isSuccess).count();
+        log.info("Batch applied through ledger: {} succeeded, {} failed", succeeded, postings.size() - succeeded);
+        return BatchPostingResponse.builder()
+                .total(postings.size())
+                .succeeded(succeeded)
+                .failed(postings.size() - succeeded)
+                .results(results)
+                .build();
+    }
+    private TransactionRequest toTransactionRequest(PostingRequest posting) {
+        return TransactionRequest.builder()
+                .amount(posting.getAmount())
+                .transactionId(posting.getTransactionId())
+                .description(posting.getDescription())
+                .build();
+    }
+    private PostingResult succeededResult(int index, PostingRequest posting, AccountDTO account) {
+        BigDecimal newBalance = account.getBalance();
+        return PostingResult.builder()
+                .index(index)
+                .accountNumber(posting.getAccountNumber())
+                .transactionId(posting.getTransactionId())
+                .success(true)
+                .oldBalance(posting.getType() == PostingType.DEBIT
+                        ? newBalance.add(posting.getAmount())
+                        : newBalance.subtract(posting.getAmount()))
+                .newBalance(newBalance)
+                .build();
+    }
+    private PostingResult failedResult(int index, PostingRequest posting, RuntimeException e) {
+        return PostingResult.builder()
+                .index(index)
+                .accountNumber(posting.getAccountNumber())
+                .transactionId(posting.getTransactionId())
+                .success(false)
+                .error(e.getMessage())
+                .build();
+    }
+    private void refreshLedgerAfterCommit(String accountNumber) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ledgerEngine.getObject().refresh(accountNumber);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ledgerEngine.getObject().refresh(accountNumber);
+            }
+        });
+    }
     @Transactional(readOnly = true)
     public List<AccountHistoryDTO> getAccountHistory(String accountNumber) {
         Account account = accountRepository.findByAccountNumber(accountNumber)
@@ -143,20 +590,76 @@ public class AccountService {
                 .map(AccountHistoryDTO::from)
                 .collect(Collectors.toList());
     }
+    @Transactional(readOnly = true)
+    public CursorPage<AccountHistoryDTO> getAccountHistoryPage(String accountNumber, String cursor, int size) {
+        PageCursor after;
+        try {
+            after = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidAccountOperationException(e.getMessage());
+        }
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<AccountHistory> rows = historyRepository.findPageByAccountId(
+                account.getId(), after.getCreatedAt(), after.getId(), limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<AccountHistory> page = hasMore ? rows.subList(0, limit) : rows;
+        AccountHistory last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return CursorPage.<AccountHistoryDTO>builder()
+                .items(page.stream().map(AccountHistoryDTO::from).collect(Collectors.toList()))
+                .nextCursor(hasMore ? new PageCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+    private AccountDTO creditedViaSlot(Account account, HotAccountService.SlotCredit slotCredit, TransactionRequest request) {
+        BigDecimal newBalance = hotAccountService.totalBalance(account);
+        BigDecimal oldBalance = newBalance.subtract(request.getAmount());
+        historyRepository.save(AccountHistory.builder()
+                .accountId(account.getId())
+                .accountNumber(account.getAccountNumber())
+                .action("CREDITED")
+                .oldBalance(slotCredit.oldBalance())
+                .newBalance(slotCredit.newBalance())
+                .amount(request.getAmount())
+                .slotIndex(slotCredit.slotIndex())
+                .transactionId(request.getTransactionId())
+                .description(request.getDescription())
+                .build());
+        publishBalanceChangedEvent(account, oldBalance, newBalance,
+                request.getAmount(), "CREDIT", request.getTransactionId());
+        log.info("Account {} credited via balance slot. New balance: {}", account.getAccountNumber(), newBalance);
+        AccountDTO dto = AccountDTO.from(account);
+        dto.setBalance(newBalance);
+        return dto;
+    }
+    private AccountDTO loadAccount(String accountNumber) {
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
+        return toDto(account);
+    }
+    private AccountMetadata loadMetadata(String accountNumber) {
+        return accountRepository.findByAccountNumber(accountNumber)
+                .map(AccountMetadata::from)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
+    }
+    private Map<String, AccountDTO> loadAccounts(Set<String> accountNumbers) {
+        return accountRepository.findByAccountNumberIn(new ArrayList<>(accountNumbers)).stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, this::toDto));
+    }
+    private AccountDTO toDto(Account account) {
+        AccountDTO dto = AccountDTO.from(account);
+        if (account.isStriped()) {
+            dto.setBalance(hotAccountService.totalBalance(account));
+        }
+        return dto;
+    }
     private void validateAccountActive(Account account) {
         if (account.getStatus() != AccountStatus.ACTIVE) {
             throw new InvalidAccountOperationException(
                     "Account is not active. Status: " + account.getStatus());
         }
     }
-    private String generateAccountNumber() {
-        String accountNumber;
-        do {
-            accountNumber = "ACC" + System.currentTimeMillis() + 
-                    String.format("%04d", new Random().nextInt(10000));
-        } while (accountRepository.existsByAccountNumber(accountNumber));
-        return accountNumber;
-    }
     private BigDecimal getInterestRateByAccountType(String accountType) {
         return switch (accountType) {
             case "SAVINGS" -> new BigDecimal("3.50");
@@ -187,17 +690,33 @@ public class AccountService {
                 .currency(account.getCurrency())
                 .createdAt(LocalDateTime.now())
                 .build();
-        try {
-            kafkaTemplate.send("account-events", event);
-            log.info("Published AccountCreatedEvent for account: {}", account.getAccountNumber());
-        } catch (Exception e) {
-            log.error("Failed to publish AccountCreatedEvent: {}", e.getMessage());
-        }
+        outboxPublisher.publish("account-events", account.getAccountNumber(), event);
+        log.info("Queued AccountCreatedEvent for account: {}", account.getAccountNumber());
+    }
+    private void publishStatusChangedEvent(Account account, String oldStatus) {
+        AccountStatusChangedEvent event = AccountStatusChangedEvent.builder()
+                .accountId(account.getId())
+                .accountNumber(account.getAccountNumber())
+                .userId(account.getUserId())
+                .oldStatus(oldStatus)
+                .newStatus(account.getStatus().name())
+                .timestamp(LocalDateTime.now())
+                .build();
+        outboxPublisher.publish("account-events", account.getAccountNumber(), event);
+        log.info("Queued AccountStatusChangedEvent for account: {}", account.getAccountNumber());
     }
     private void publishBalanceChangedEvent(Account account, BigDecimal oldBalance, 
                                             BigDecimal newBalance, BigDecimal amount, 
                                             String transactionType, String transactionId) {
-        AccountBalanceChangedEvent event = AccountBalanceChangedEvent.builder()
+        AccountBalanceChangedEvent event = buildBalanceChangedEvent(account, oldBalance, newBalance,
+                amount, transactionType, transactionId);
+        outboxPublisher.publish("account-balance-events", account.getAccountNumber(), event);
+        log.info("Queued AccountBalanceChangedEvent for account: {}", account.getAccountNumber());
+    }
+    private AccountBalanceChangedEvent buildBalanceChangedEvent(Account account, BigDecimal oldBalance,
+                                                                BigDecimal newBalance, BigDecimal amount,
+                                                                String transactionType, String transactionId) {
+        return AccountBalanceChangedEvent.builder()
                 .accountId(account.getId())
                 .accountNumber(account.getAccountNumber())
                 .userId(account.getUserId())
@@ -208,11 +727,5 @@ public class AccountService {
                 .transactionId(transactionId)
                 .timestamp(LocalDateTime.now())
                 .build();
-        try {
-            kafkaTemplate.send("account-balance-events", event);
-            log.info("Published AccountBalanceChangedEvent for account: {}", account.getAccountNumber());
-        } catch (Exception e) {
-            log.error("Failed to publish AccountBalanceChangedEvent: {}", e.getMessage());
-        }
     }
 }
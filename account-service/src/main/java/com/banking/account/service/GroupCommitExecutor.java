@@ -0,0 +1,250 @@
+﻿package com.banking.account.service;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.posting.mode", havingValue = "GROUP_COMMIT")
+public class GroupCommitExecutor {
+    private final TransactionTemplate transactionTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final int workers;
+    private final BlockingQueue<Pending> queue;
+    private final List<Thread> threads = new ArrayList<>();
+    private final DistributionSummary batchSize;
+    private final Timer queueDelay;
+    private final Timer commitTimer;
+    private final Counter fallbacks;
+    private volatile boolean running = true;
+    public GroupCommitExecutor(TransactionTemplate transactionTemplate,
+                               EntityManager entityManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${account.posting.group-commit.window:PT0.0005S}") Duration window,
+                               @Value("${account.posting.group-commit.max-batch-size:128}") int maxBatchSize,
+                               @Value("${account.posting.group-commit.workers:2}") int workers,
+                               @Value("${account.posting.group-commit.queue-capacity:10000}") int queueCapacity) {
+        this.transactionTemplate = transactionTemplate;
+        this.transactionManager = transactionTemplate.getTransactionManager();
+        this.entityManager = entityManager;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.workers = workers;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = DistributionSummary.builder("posting.group-commit.batch.size")
+                .description("Postings applied per shared commit")
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry);
+        this.queueDelay = Timer.builder("posting.group-commit.queue.delay")
+                .description("Time a posting waits before its batch starts")
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("posting.group-commit.batch.duration")
+                .description("Time to apply and commit one batch of postings")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("posting.group-commit.fallbacks")
+                .description("Batches whose shared commit failed and were retried one posting at a time")
+                .register(meterRegistry);
+        Gauge.builder("posting.group-commit.queue.size", queue, BlockingQueue::size)
+                .description("Postings waiting for a batch")
+                .register(meterRegistry);
+    }
+    @PostConstruct
+    void start() {
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::run, "group-commit-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+    }
+    @PreDestroy
+    void stop() {
+        running = false;
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String orderingKey, boolean replayable, Supplier<Outcome<T>> work) {
+        Pending pending = new Pending(orderingKey, replayable, work);
+        try {
+            if (!running || !queue.offer(pending, 1, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Group commit queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing posting", e);
+        }
+        try {
+            return (T) pending.future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.enqueuedAt + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.future.completeExceptionally(e));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    private void commit(List<Pending> batch) {
+        long started = System.nanoTime();
+        batch.forEach(pending -> queueDelay.record(started - pending.enqueuedAt, TimeUnit.NANOSECONDS));
+        batchSize.record(batch.size());
+        batch.sort(Comparator.comparing(pending -> pending.orderingKey));
+        TransactionStatus status = null;
+        try {
+            status = transactionManager.getTransaction(transactionTemplate);
+            for (Pending pending : batch) {
+                applyWithSavepoint(status, pending);
+            }
+        } catch (RuntimeException e) {
+            if (status != null) {
+                try {
+                    transactionManager.rollback(status);
+                } catch (RuntimeException rollbackFailure) {
+                    log.warn("Rollback of a failed group commit failed: {}", rollbackFailure.getMessage());
+                }
+            }
+            retryAlone(batch, e);
+            return;
+        }
+        try {
+            transactionManager.commit(status);
+            commitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        } catch (UnexpectedRollbackException e) {
+            retryAlone(batch, e);
+            return;
+        } catch (RuntimeException e) {
+            fallbacks.increment();
+            log.warn("Commit of {} grouped postings failed with an unknown outcome, retrying only postings with "
+                    + "a transaction id: {}", batch.size(), e.getMessage());
+            for (Pending pending : batch) {
+                if (pending.replayable) {
+                    applyAlone(pending);
+                } else {
+                    pending.result = null;
+                    pending.error = new IllegalStateException(
+                            "Posting outcome is unknown after a failed commit and it has no transaction id to retry with", e);
+                }
+            }
+        }
+        batch.forEach(Pending::finish);
+    }
+    private void retryAlone(List<Pending> batch, RuntimeException cause) {
+        fallbacks.increment();
+        log.warn("Group commit of {} postings failed, retrying them one at a time: {}", batch.size(), cause.getMessage());
+        batch.forEach(this::applyAlone);
+        batch.forEach(Pending::finish);
+    }
+    private void applyWithSavepoint(TransactionStatus status, Pending pending) {
+        Object savepoint = status.createSavepoint();
+        Outcome<?> outcome = pending.work.get();
+        if (outcome.rejection() != null) {
+            status.rollbackToSavepoint(savepoint);
+            entityManager.clear();
+            pending.error = outcome.rejection();
+            return;
+        }
+        entityManager.flush();
+        status.releaseSavepoint(savepoint);
+        pending.result = outcome.value();
+    }
+    private void applyAlone(Pending pending) {
+        try {
+            Outcome<?> outcome = transactionTemplate.execute(status -> {
+                Outcome<?> applied = pending.work.get();
+                if (applied.rejection() != null) {
+                    status.setRollbackOnly();
+                }
+                return applied;
+            });
+            pending.result = outcome.value();
+            pending.error = outcome.rejection();
+        } catch (RuntimeException e) {
+            pending.result = null;
+            pending.error = e;
+        }
+    }
+    public record Outcome<T>(T value, RuntimeException rejection) {
+        public static <T> Outcome<T> applied(T value) {
+            return new Outcome<>(value, null);
+        }
+        public static <T> Outcome<T> rejected(RuntimeException rejection) {
+            return new Outcome<>(null, rejection);
+        }
+    }
+    private static final class Pending {
+        private final String orderingKey;
+        private final boolean replayable;
+        private final Supplier<? extends Outcome<?>> work;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private Object result;
+        private RuntimeException error;
+        private Pending(String orderingKey, boolean replayable, Supplier<? extends Outcome<?>> work) {
+            this.orderingKey = orderingKey;
+            this.replayable = replayable;
+            this.work = work;
+        }
+        private void finish() {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+﻿package com.banking.account.service;
+import com.banking.account.entity.Account;
+import com.banking.account.entity.AccountBalanceSlot;
+import com.banking.account.exception.InvalidAccountOperationException;
+import com.banking.account.repository.AccountBalanceSlotRepository;
+import com.banking.account.repository.AccountRepository;
+import com.banking.persistence.PrimaryRead;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class HotAccountService {
+    private final AccountRepository accountRepository;
+    private final AccountBalanceSlotRepository slotRepository;
+    @Value("${account.striping.max-slots:64}")
+    private int maxSlots;
+    private volatile Set<String> stripedAccounts = Set.of();
+    public boolean isStriped(String accountNumber) {
+        return stripedAccounts.contains(accountNumber);
+    }
+    public Optional<SlotCredit> credit(Account account, BigDecimal amount) {
+        int slot = ThreadLocalRandom.current().nextInt(account.getBalanceSlots());
+        return slotRepository.creditSlot(account.getAccountNumber(), slot, amount)
+                .map(balance -> new SlotCredit(slot, balance.subtract(amount), balance));
+    }
+    @Transactional(readOnly = true)
+    public Optional<BigDecimal> currentBalance(String accountNumber) {
+        return Optional.ofNullable(slotRepository.totalBalance(accountNumber));
+    }
+    @Transactional(readOnly = true)
+    public BigDecimal totalBalance(Account account) {
+        if (!account.isStriped()) {
+            return account.getBalance();
+        }
+        return slotRepository.totalBalance(account.getAccountNumber());
+    }
+    public void consolidate(Account lockedAccount) {
+        List<AccountBalanceSlot> slots = slotRepository.findByAccountNumberForUpdate(lockedAccount.getAccountNumber());
+        BigDecimal folded = BigDecimal.ZERO;
+        for (AccountBalanceSlot slot : slots) {
+            if (slot.getBalance().signum() != 0) {
+                folded = folded.add(slot.getBalance());
+                slot.setBalance(BigDecimal.ZERO);
+            }
+        }
+        if (folded.signum() != 0) {
+            lockedAccount.setBalance(lockedAccount.getBalance().add(folded));
+        }
+    }
+    public void configure(Account lockedAccount, int slotCount) {
+        if (slotCount < 0 || slotCount > maxSlots) {
+            throw new InvalidAccountOperationException(
+                    "Balance slots must be between 0 and " + maxSlots + ": " + slotCount);
+        }
+        if (lockedAccount.isStriped()) {
+            consolidate(lockedAccount);
+            slotRepository.flush();
+            slotRepository.deleteByAccountNumber(lockedAccount.getAccountNumber());
+        }
+        List<AccountBalanceSlot> slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(AccountBalanceSlot.builder()
+                    .accountId(lockedAccount.getId())
+                    .accountNumber(lockedAccount.getAccountNumber())
+                    .slotIndex(i)
+                    .build());
+        }
+        slotRepository.saveAll(slots);
+        lockedAccount.setBalanceSlots(slotCount);
+        Set<String> updated = new HashSet<>(stripedAccounts);
+        if (slotCount > 0) {
+            updated.add(lockedAccount.getAccountNumber());
+        } else {
+            updated.remove(lockedAccount.getAccountNumber());
+        }
+        stripedAccounts = Set.copyOf(updated);
+        log.info("Account {} configured with {} balance slots", lockedAccount.getAccountNumber(), slotCount);
+    }
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${account.striping.refresh-ms:5000}")
+    @PrimaryRead
+    @Transactional(readOnly = true)
+    public void refreshStripedAccounts() {
+        stripedAccounts = Set.copyOf(accountRepository.findStripedAccountNumbers());
+    }
+    public record SlotCredit(int slotIndex, BigDecimal oldBalance, BigDecimal newBalance) {
+    }
+}
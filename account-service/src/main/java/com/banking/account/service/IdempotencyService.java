@@ -0,0 +1,196 @@
+﻿package com.banking.account.service;
+import com.banking.account.dto.AccountDTO;
+import com.banking.account.dto.TransactionRequest;
+import com.banking.account.entity.IdempotencyRecord;
+import com.banking.account.exception.DuplicateRequestException;
+import com.banking.account.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+@Slf4j
+@Service
+@Transactional(noRollbackFor = DuplicateRequestException.class)
+public class IdempotencyService {
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final long bloomCapacity;
+    private final int purgeBatchSize;
+    private final Counter replayed;
+    private final Counter lookupsSkipped;
+    private volatile KeyBloomFilter seenKeys;
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              ObjectMapper objectMapper,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${idempotency.ttl:PT72H}") Duration ttl,
+                              @Value("${idempotency.bloom.capacity:2000000}") long bloomCapacity,
+                              @Value("${idempotency.purge.batch-size:5000}") int purgeBatchSize) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+        this.bloomCapacity = bloomCapacity;
+        this.purgeBatchSize = purgeBatchSize;
+        this.seenKeys = new KeyBloomFilter(bloomCapacity, 0.01);
+        this.replayed = Counter.builder("idempotency.replayed")
+                .description("Duplicate requests answered from the idempotency store")
+                .register(meterRegistry);
+        this.lookupsSkipped = Counter.builder("idempotency.lookups.skipped")
+                .description("Idempotency lookups skipped because the key was definitely new")
+                .register(meterRegistry);
+    }
+    public Optional<AccountDTO> begin(String operation, String accountNumber, TransactionRequest request) {
+        return claimOrReplay(operation, accountNumber, request);
+    }
+    public Claim claim(String operation, String accountNumber, TransactionRequest request) {
+        try {
+            return new Claim(claimOrReplay(operation, accountNumber, request).orElse(null), null);
+        } catch (DuplicateRequestException e) {
+            return new Claim(null, e);
+        }
+    }
+    private Optional<AccountDTO> claimOrReplay(String operation, String accountNumber, TransactionRequest request) {
+        if (request.getTransactionId() == null) {
+            return Optional.empty();
+        }
+        String key = key(operation, accountNumber, request.getTransactionId());
+        String requestHash = requestHash(request.getAmount());
+        if (seenKeys.mightContain(key)) {
+            Optional<AccountDTO> stored = replay(key, requestHash);
+            if (stored.isPresent()) {
+                return stored;
+            }
+        } else {
+            lookupsSkipped.increment();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (recordRepository.claim(key, operation, accountNumber, requestHash, now, now.plus(ttl)) == 1) {
+            remember(key);
+            return Optional.empty();
+        }
+        return Optional.of(replay(key, requestHash)
+                .orElseThrow(() -> new DuplicateRequestException("Request is already being processed: " + key)));
+    }
+    public void complete(String operation, String accountNumber, TransactionRequest request, AccountDTO response) {
+        if (request.getTransactionId() == null) {
+            return;
+        }
+        String json = toJson(response);
+        recordRepository.complete(key(operation, accountNumber, request.getTransactionId()), json, sha256(json));
+    }
+    public String keyFor(String operation, String accountNumber, TransactionRequest request) {
+        return request.getTransactionId() != null ? key(operation, accountNumber, request.getTransactionId()) : null;
+    }
+    public void completeJournaled(String key, String operation, String accountNumber, BigDecimal amount,
+                                  AccountDTO response) {
+        String json = toJson(response);
+        LocalDateTime now = LocalDateTime.now();
+        recordRepository.completeOrInsert(key, operation, accountNumber, requestHash(amount),
+                json, sha256(json), now, now.plus(ttl));
+        remember(key);
+    }
+    public int releaseUnfinished(LocalDateTime before) {
+        return recordRepository.releaseUnfinished(before);
+    }
+    public List<String> findUnfinishedKeys(LocalDateTime before, int limit) {
+        return recordRepository.findUnfinishedKeys(before, PageRequest.of(0, limit));
+    }
+    public int releaseKeys(Collection<String> keys) {
+        return recordRepository.releaseAll(keys);
+    }
+    public void release(String operation, String accountNumber, TransactionRequest request) {
+        if (request.getTransactionId() == null) {
+            return;
+        }
+        recordRepository.release(key(operation, accountNumber, request.getTransactionId()));
+    }
+    @Scheduled(fixedDelayString = "${idempotency.purge.interval-ms:60000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void purgeExpired() {
+        int purged = 0;
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                    recordRepository.purgeExpired(LocalDateTime.now(), purgeBatchSize));
+            purged += deleted != null ? deleted : 0;
+        } while (deleted != null && deleted >= purgeBatchSize);
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+    private Optional<AccountDTO> replay(String key, String requestHash) {
+        Optional<IdempotencyRecord> found = recordRepository.findById(key);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        IdempotencyRecord record = found.get();
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new DuplicateRequestException("Idempotency key reused with a different amount: " + key);
+        }
+        if (record.getResponse() == null) {
+            throw new DuplicateRequestException("Request is already being processed: " + key);
+        }
+        if (!sha256(record.getResponse()).equals(record.getResultHash())) {
+            log.warn("Stored response for idempotency key {} does not match its result hash", key);
+        }
+        replayed.increment();
+        log.info("Replaying stored response for idempotency key {}", key);
+        try {
+            return Optional.of(objectMapper.readValue(record.getResponse(), AccountDTO.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored response for " + key, e);
+        }
+    }
+    private void remember(String key) {
+        KeyBloomFilter filter = seenKeys;
+        if (filter.isSaturated()) {
+            filter = new KeyBloomFilter(bloomCapacity, 0.01);
+            seenKeys = filter;
+        }
+        filter.put(key);
+    }
+    private String key(String operation, String accountNumber, String transactionId) {
+        return operation + ":" + accountNumber + ":" + transactionId;
+    }
+    private String toJson(AccountDTO response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotent response", e);
+        }
+    }
+    private static String requestHash(BigDecimal amount) {
+        return sha256(amount.stripTrailingZeros().toPlainString());
+    }
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    public record Claim(AccountDTO replay, DuplicateRequestException rejection) {
+    }
+}
@@ -0,0 +1,7 @@
+﻿package com.banking.account.service;
+public enum PostingMode {
+    PESSIMISTIC,
+    CONDITIONAL,
+    GROUP_COMMIT,
+    LEDGER
+}
@@ -0,0 +1,68 @@
+﻿package com.banking.account.service;
+import com.banking.account.dto.ExportFormat;
+import com.banking.account.exception.AccountNotFoundException;
+import com.banking.account.exception.InvalidAccountOperationException;
+import com.banking.account.repository.AccountRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatementExportService {
+    private static final String HISTORY_STATEMENT_SQL = "SELECT id, account_number, action, old_balance, new_balance, "
+            + "amount, transaction_id, description, created_at FROM account_history "
+            + "WHERE account_id = ? AND created_at >= ? AND created_at < ? ORDER BY created_at, id";
+    private static final String[] COLUMNS = {"id", "accountNumber", "action", "oldBalance", "newBalance",
+            "amount", "transactionId", "description", "createdAt"};
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private final AccountRepository accountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    @Value("${statement.export.fetch-size:1000}")
+    private int fetchSize;
+    @Transactional(readOnly = true)
+    public Long resolveAccountId(String accountNumber, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidAccountOperationException("Export range start must be before its end");
+        }
+        return accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber))
+                .getId();
+    }
+    @Transactional(readOnly = true)
+    public long exportHistory(Long accountId, LocalDateTime from, LocalDateTime to,
+                              ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        Timestamp start = Timestamp.valueOf(from != null ? from : EARLIEST);
+        Timestamp end = Timestamp.valueOf(to != null ? to : LATEST);
+        try (StatementWriter writer = new StatementWriter(out, gzip, format, COLUMNS, objectMapper.getFactory())) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(HISTORY_STATEMENT_SQL);
+                ps.setFetchSize(fetchSize);
+                ps.setLong(1, accountId);
+                ps.setTimestamp(2, start);
+                ps.setTimestamp(3, end);
+                return ps;
+            }, rs -> {
+                try {
+                    writer.writeRow(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Exported {} history entries for account {}", writer.getRows(), accountId);
+            return writer.getRows();
+        }
+    }
+}
@@ -1,38 +1,39 @@
 ﻿package com.banking.gateway.filter;
+import com.banking.gateway.security.JwtVerifier;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 import reactor.core.publisher.Mono;
-import java.security.Key;
 import java.util.List;
 @Component
 public class AuthenticationFilter extends AbstractGatewayFilterFactory<AuthenticationFilter.Config> {
-    @Value("${jwt.secret}")
-    private String jwtSecret;
-    private static final List<String> PUBLIC_PATHS = List.of(
+    public static final String USER_ID_ATTRIBUTE = AuthenticationFilter.class.getName() + ".userId";
+    public static final String USER_TIER_ATTRIBUTE = AuthenticationFilter.class.getName() + ".tier";
+    private static final List<PathPattern> PUBLIC_PATHS = List.of(
             "/api/auth/login",
             "/api/auth/register",
             "/api/users/register",
             "/api/users/login"
-    );
-    public AuthenticationFilter() {
+    ).stream().map(PathPatternParser.defaultInstance::parse).toList();
+    private final JwtVerifier jwtVerifier;
+    public AuthenticationFilter(JwtVerifier jwtVerifier) {
         super(Config.class);
+        this.jwtVerifier = jwtVerifier;
     }
     @Override
     public GatewayFilter apply(Config config) {
         return (exchange, chain) -> {
             ServerHttpRequest request = exchange.getRequest();
-            String path = request.getURI().getPath();
-            if (isPublicPath(path)) {
+            if (isPublicPath(request.getPath().pathWithinApplication())) {
                 return chain.filter(exchange);
             }
             if (!request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
@@ -44,7 +45,12 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
             }
             String token = authHeader.substring(7);
             try {
-                Claims claims = validateToken(token);
+                Claims claims = jwtVerifier.verify(token);
+                exchange.getAttributes().put(USER_ID_ATTRIBUTE, claims.getSubject());
+                String tier = claims.get("tier", String.class);
+                if (tier != null) {
+                    exchange.getAttributes().put(USER_TIER_ATTRIBUTE, tier);
+                }
                 ServerHttpRequest modifiedRequest = request.mutate()
                         .header("X-User-Id", claims.getSubject())
                         .header("X-User-Name", claims.get("username", String.class))
@@ -55,16 +61,13 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
             }
         };
     }
-    private boolean isPublicPath(String path) {
-        return PUBLIC_PATHS.stream().anyMatch(path::contains);
-    }
-    private Claims validateToken(String token) {
-        Key key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private boolean isPublicPath(PathContainer path) {
+        for (PathPattern pattern : PUBLIC_PATHS) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
     }
     private Mono<Void> onError(ServerWebExchange exchange, String message, HttpStatus httpStatus) {
         ServerHttpResponse response = exchange.getResponse();
@@ -0,0 +1,88 @@
+﻿package com.banking.gateway.filter;
+import com.banking.gateway.ratelimit.RateLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+    public static final String ANONYMOUS_TIER = "anonymous";
+    public static final String STANDARD_TIER = "standard";
+    private final RateLimiterRegistry registry;
+    private final MeterRegistry meterRegistry;
+    public RateLimitFilter(RateLimiterRegistry registry, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.registry = registry;
+        this.meterRegistry = meterRegistry;
+    }
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            String userId = exchange.getAttribute(AuthenticationFilter.USER_ID_ATTRIBUTE);
+            String tier = userId != null
+                    ? exchange.getAttributeOrDefault(AuthenticationFilter.USER_TIER_ATTRIBUTE, STANDARD_TIER)
+                    : ANONYMOUS_TIER;
+            Limit limit = config.limitFor(tier);
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "default";
+            String principal = userId != null ? "user:" + userId : "ip:" + clientIp(exchange);
+            long result = registry.tryAcquire(routeId + ":" + tier + ":" + principal,
+                    limit.getReplenishRate(), limit.getBurstCapacity());
+            if (result < 0) {
+                meterRegistry.counter("gateway.ratelimit.rejected", "route", routeId, "tier", tier).increment();
+                return onLimited(exchange, -result);
+            }
+            exchange.getResponse().getHeaders().set("X-RateLimit-Remaining", Long.toString(result));
+            return chain.filter(exchange);
+        };
+    }
+    private String clientIp(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return "unknown";
+        }
+        return remoteAddress.getAddress().getHostAddress();
+    }
+    private Mono<Void> onLimited(ServerWebExchange exchange, long retryAfterNanos) {
+        ServerHttpResponse response = exchange.getResponse();
+        long retryAfterSeconds = Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().add("Content-Type", "application/json");
+        response.getHeaders().set("Retry-After", Long.toString(retryAfterSeconds));
+        response.getHeaders().set("X-RateLimit-Remaining", "0");
+        String body = String.format("{\"error\": \"Rate limit exceeded\", \"status\": %d}",
+                HttpStatus.TOO_MANY_REQUESTS.value());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes())));
+    }
+    @Data
+    public static class Config {
+        private Map<String, Limit> tiers = new HashMap<>(Map.of(
+                ANONYMOUS_TIER, new Limit(5, 10),
+                STANDARD_TIER, new Limit(20, 40),
+                "premium", new Limit(100, 200)));
+        Limit limitFor(String tier) {
+            Limit limit = tiers.get(tier);
+            return limit != null ? limit : tiers.getOrDefault(STANDARD_TIER, new Limit(20, 40));
+        }
+    }
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private double replenishRate;
+        private long burstCapacity;
+    }
+}
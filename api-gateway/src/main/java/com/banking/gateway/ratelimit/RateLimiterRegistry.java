@@ -0,0 +1,74 @@
+﻿package com.banking.gateway.ratelimit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+@Slf4j
+@Component
+public class RateLimiterRegistry {
+    private static final String REDIS_PREFIX = "ratelimit:";
+    private final Cache<String, TokenBucket> buckets;
+    private final Queue<TokenBucket> dirtyBuckets = new ConcurrentLinkedQueue<>();
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final boolean redisEnabled;
+    private final Duration syncWindow;
+    private final Counter syncFailures;
+    public RateLimiterRegistry(ReactiveStringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${rate-limit.redis.enabled:true}") boolean redisEnabled,
+                               @Value("${rate-limit.redis.window:PT1S}") Duration syncWindow,
+                               @Value("${rate-limit.buckets.max-size:1000000}") long maxBuckets,
+                               @Value("${rate-limit.buckets.idle-ttl:PT10M}") Duration idleTtl) {
+        this.redisTemplate = redisTemplate;
+        this.redisEnabled = redisEnabled && redisTemplate != null;
+        this.syncWindow = syncWindow;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTtl)
+                .build();
+        this.syncFailures = Counter.builder("gateway.ratelimit.sync.failures")
+                .description("Rate limit quota updates that could not be synchronized with Redis")
+                .register(meterRegistry);
+    }
+    public long tryAcquire(String key, double replenishRate, long burstCapacity) {
+        TokenBucket bucket = buckets.getIfPresent(key);
+        if (bucket == null) {
+            bucket = buckets.get(key, k -> new TokenBucket(k, replenishRate, burstCapacity));
+        }
+        long result = bucket.tryAcquire(System.nanoTime());
+        if (result >= 0 && redisEnabled && bucket.markDirty()) {
+            dirtyBuckets.add(bucket);
+        }
+        return result;
+    }
+    @Scheduled(fixedDelayString = "${rate-limit.redis.sync-interval-ms:100}")
+    public void synchronize() {
+        if (!redisEnabled) {
+            return;
+        }
+        long window = System.currentTimeMillis() / syncWindow.toMillis();
+        TokenBucket bucket;
+        while ((bucket = dirtyBuckets.poll()) != null) {
+            long sent = bucket.drainPending();
+            if (sent == 0) {
+                continue;
+            }
+            TokenBucket target = bucket;
+            String redisKey = REDIS_PREFIX + target.getKey() + ":" + window;
+            redisTemplate.opsForValue().increment(redisKey, sent)
+                    .flatMap(total -> redisTemplate.expire(redisKey, syncWindow.multipliedBy(2)).thenReturn(total))
+                    .subscribe(total -> target.reconcile(window, sent, total), e -> {
+                        syncFailures.increment();
+                        log.debug("Rate limit sync failed for {}: {}", target.getKey(), e.getMessage());
+                    });
+        }
+    }
+}
@@ -0,0 +1,61 @@
+﻿package com.banking.gateway.ratelimit;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+public class TokenBucket {
+    private final String key;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private long syncWindow = -1;
+    private long localInWindow;
+    private long remoteCharged;
+    public TokenBucket(String key, double replenishRate, long burstCapacity) {
+        this.key = key;
+        this.emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / replenishRate));
+        this.burstNanos = emissionIntervalNanos * Math.max(1, burstCapacity);
+    }
+    public String getKey() {
+        return key;
+    }
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > burstNanos) {
+                return -(ahead - burstNanos);
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                pending.incrementAndGet();
+                return (burstNanos - ahead) / emissionIntervalNanos;
+            }
+        }
+    }
+    boolean markDirty() {
+        return !dirty.get() && dirty.compareAndSet(false, true);
+    }
+    long drainPending() {
+        dirty.set(false);
+        return pending.getAndSet(0);
+    }
+    synchronized void reconcile(long window, long localSent, long globalTotal) {
+        if (window != syncWindow) {
+            syncWindow = window;
+            localInWindow = 0;
+            remoteCharged = 0;
+        }
+        localInWindow += localSent;
+        long remote = globalTotal - localInWindow;
+        long charge = remote - remoteCharged;
+        if (charge > 0) {
+            remoteCharged += charge;
+            long penalty = charge * emissionIntervalNanos;
+            long now = System.nanoTime();
+            theoreticalArrival.accumulateAndGet(penalty,
+                    (current, add) -> Math.min(Math.max(current, now) + add, now + burstNanos));
+        }
+    }
+}
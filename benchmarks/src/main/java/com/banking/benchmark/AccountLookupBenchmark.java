@@ -0,0 +1,63 @@
+﻿package com.banking.benchmark;
+import com.banking.transaction.dto.AccountDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class AccountLookupBenchmark {
+    @Param({"PT0S", "PT0.002S"})
+    public String batchWindow;
+    @Param({"10", "10000"})
+    public int accounts;
+    private SimpleMeterRegistry meterRegistry;
+    private StubAsyncAccountClient client;
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class LookupCounters {
+        public long roundTrips;
+    }
+    @Setup(Level.Trial)
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        client = new StubAsyncAccountClient(meterRegistry, Duration.parse(batchWindow), Duration.ofMillis(5));
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        meterRegistry.close();
+    }
+    @Benchmark
+    @Threads(64)
+    public Map<String, AccountDTO> validateTransferAccounts(LookupCounters counters) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double before = meterRegistry.counter("account.lookup.round-trips").count();
+        Map<String, AccountDTO> found = client.getAccounts(List.of(
+                String.format("BENCH%010d", random.nextInt(accounts)),
+                String.format("BENCH%010d", accounts + random.nextInt(accounts)))).join();
+        counters.roundTrips += (long) (meterRegistry.counter("account.lookup.round-trips").count() - before);
+        return found;
+    }
+}
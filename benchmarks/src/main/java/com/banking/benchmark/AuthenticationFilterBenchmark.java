@@ -0,0 +1,93 @@
+﻿package com.banking.benchmark;
+import com.banking.gateway.filter.AuthenticationFilter;
+import com.banking.gateway.security.JwtVerifier;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuthenticationFilterBenchmark {
+    private static final GatewayFilterChain CHAIN = exchange -> Mono.empty();
+    @Param({"1", "100000"})
+    public int distinctTokens;
+    @Param({"CACHED", "PARSE_EVERY_REQUEST"})
+    public String verification;
+    private GatewayFilter filter;
+    private String[] tokens;
+    @Setup
+    public void setUp() {
+        filter = new AuthenticationFilter(verifier()).apply(new AuthenticationFilter.Config());
+        tokens = new String[distinctTokens];
+        Date expiry = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+        for (int i = 0; i < distinctTokens; i++) {
+            tokens[i] = Jwts.builder()
+                    .setSubject(String.valueOf(i))
+                    .claim("username", "user" + i)
+                    .setIssuedAt(new Date())
+                    .setExpiration(expiry)
+                    .signWith(Keys.hmacShaKeyFor(JwtBenchmark.SECRET.getBytes()), SignatureAlgorithm.HS256)
+                    .compact();
+        }
+    }
+    private JwtVerifier verifier() {
+        if (!"PARSE_EVERY_REQUEST".equals(verification)) {
+            return new JwtVerifier(JwtBenchmark.SECRET, 50_000, Duration.ofMinutes(15));
+        }
+        JwtParser parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(JwtBenchmark.SECRET.getBytes()))
+                .build();
+        return new JwtVerifier(JwtBenchmark.SECRET, 0, Duration.ZERO) {
+            @Override
+            public Claims verify(String token) {
+                return parser.parseClaimsJws(token).getBody();
+            }
+        };
+    }
+    @Benchmark
+    public Void authenticatedRequest() {
+        String token = tokens[ThreadLocalRandom.current().nextInt(tokens.length)];
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/accounts/ACC1000000001")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+        return filter.filter(exchange, CHAIN).block();
+    }
+    @Benchmark
+    public Void publicRequest() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/users/login"));
+        return filter.filter(exchange, CHAIN).block();
+    }
+    @Benchmark
+    public Void rejectedRequest() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/accounts/ACC1000000001")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer invalid.token.value"));
+        return filter.filter(exchange, CHAIN).block();
+    }
+}
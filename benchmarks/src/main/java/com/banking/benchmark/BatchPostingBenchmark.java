@@ -0,0 +1,110 @@
+package com.banking.benchmark;
+import com.banking.account.AccountServiceApplication;
+import com.banking.account.dto.AccountDTO;
+import com.banking.account.dto.BatchPostingRequest;
+import com.banking.account.dto.BatchPostingResponse;
+import com.banking.account.dto.PostingRequest;
+import com.banking.account.dto.PostingType;
+import com.banking.account.dto.TransactionRequest;
+import com.banking.account.entity.Account;
+import com.banking.account.entity.AccountType;
+import com.banking.account.repository.AccountRepository;
+import com.banking.account.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class BatchPostingBenchmark {
+    private static final int POSTINGS = 1000;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000.00");
+    @Param({"1000"})
+    public int accounts;
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private String[] accountNumbers;
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start();
+        context = ServiceContexts.start(database, Map.of(), AccountServiceApplication.class);
+        accountService = context.getBean(AccountService.class);
+        List<Account> seeded = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            seeded.add(Account.builder()
+                    .accountNumber(String.format("BENCH%010d", i))
+                    .userId((long) i)
+                    .accountType(AccountType.CHECKING)
+                    .balance(OPENING_BALANCE)
+                    .build());
+        }
+        accountNumbers = context.getBean(AccountRepository.class).saveAll(seeded).stream()
+                .map(Account::getAccountNumber)
+                .toArray(String[]::new);
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        database.close();
+    }
+    @Benchmark
+    @OperationsPerInvocation(POSTINGS)
+    public void singlePostings(Blackhole blackhole) {
+        for (PostingRequest posting : postings()) {
+            TransactionRequest request = TransactionRequest.builder()
+                    .amount(posting.getAmount())
+                    .transactionId(posting.getTransactionId())
+                    .description(posting.getDescription())
+                    .build();
+            AccountDTO result = posting.getType() == PostingType.DEBIT
+                    ? accountService.debitAccount(posting.getAccountNumber(), request)
+                    : accountService.creditAccount(posting.getAccountNumber(), request);
+            blackhole.consume(result);
+        }
+    }
+    @Benchmark
+    @OperationsPerInvocation(POSTINGS)
+    public BatchPostingResponse batchPostings() {
+        return accountService.applyPostings(BatchPostingRequest.builder()
+                .postings(postings())
+                .build());
+    }
+    private List<PostingRequest> postings() {
+        List<PostingRequest> postings = new ArrayList<>(POSTINGS);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < POSTINGS; i++) {
+            postings.add(PostingRequest.builder()
+                    .accountNumber(accountNumbers[random.nextInt(accountNumbers.length)])
+                    .type(random.nextBoolean() ? PostingType.DEBIT : PostingType.CREDIT)
+                    .amount(BigDecimal.ONE)
+                    .transactionId(UUID.randomUUID().toString())
+                    .description("Benchmark posting")
+                    .build());
+        }
+        return postings;
+    }
+}
@@ -0,0 +1,28 @@
+﻿package com.banking.benchmark;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+public final class BenchmarkDatabase implements AutoCloseable {
+    private final EmbeddedPostgres postgres;
+    private BenchmarkDatabase(EmbeddedPostgres postgres) {
+        this.postgres = postgres;
+    }
+    public static BenchmarkDatabase start() {
+        try {
+            return new BenchmarkDatabase(EmbeddedPostgres.builder().start());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start embedded Postgres", e);
+        }
+    }
+    public String getJdbcUrl() {
+        return postgres.getJdbcUrl("postgres", "postgres");
+    }
+    @Override
+    public void close() {
+        try {
+            postgres.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
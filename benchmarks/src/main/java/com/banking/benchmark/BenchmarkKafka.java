@@ -0,0 +1,20 @@
+﻿package com.banking.benchmark;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+public final class BenchmarkKafka implements AutoCloseable {
+    private final EmbeddedKafkaKraftBroker broker;
+    private BenchmarkKafka(EmbeddedKafkaKraftBroker broker) {
+        this.broker = broker;
+    }
+    public static BenchmarkKafka start(String... topics) {
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, 1, topics);
+        broker.afterPropertiesSet();
+        return new BenchmarkKafka(broker);
+    }
+    public String getBootstrapServers() {
+        return broker.getBrokersAsString();
+    }
+    @Override
+    public void close() {
+        broker.destroy();
+    }
+}
@@ -0,0 +1,104 @@
+﻿package com.banking.benchmark;
+import com.banking.account.AccountServiceApplication;
+import com.banking.account.dto.AccountDTO;
+import com.banking.account.dto.TransactionRequest;
+import com.banking.account.entity.Account;
+import com.banking.account.entity.AccountType;
+import com.banking.account.exception.InsufficientBalanceException;
+import com.banking.account.repository.AccountRepository;
+import com.banking.account.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class ConditionalPostingBenchmark {
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000.00");
+    @Param({"PESSIMISTIC", "CONDITIONAL"})
+    public String mode;
+    @Param({"1000"})
+    public int accounts;
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private String[] accountNumbers;
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start();
+        context = ServiceContexts.start(database, Map.of("account.posting.mode", mode), AccountServiceApplication.class);
+        accountService = context.getBean(AccountService.class);
+        List<Account> seeded = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            seeded.add(Account.builder()
+                    .accountNumber(String.format("BENCH%010d", i))
+                    .userId((long) i)
+                    .accountType(AccountType.CHECKING)
+                    .balance(OPENING_BALANCE)
+                    .build());
+        }
+        accountNumbers = context.getBean(AccountRepository.class).saveAll(seeded).stream()
+                .map(Account::getAccountNumber)
+                .toArray(String[]::new);
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        database.close();
+    }
+    @Benchmark
+    @Threads(32)
+    public AccountDTO debitAccount() {
+        String accountNumber = accountNumbers[ThreadLocalRandom.current().nextInt(accountNumbers.length)];
+        return accountService.debitAccount(accountNumber, debit());
+    }
+    @Benchmark
+    @Threads(32)
+    public AccountDTO debitHotAccount() {
+        return accountService.debitAccount(accountNumbers[0], debit());
+    }
+    @Benchmark
+    @Threads(32)
+    public Object debitOverdrawnAccount() {
+        try {
+            return accountService.debitAccount(accountNumbers[1], overdraw());
+        } catch (InsufficientBalanceException e) {
+            return e;
+        }
+    }
+    private static TransactionRequest debit() {
+        return TransactionRequest.builder()
+                .amount(BigDecimal.ONE)
+                .transactionId(UUID.randomUUID().toString())
+                .description("Benchmark debit")
+                .build();
+    }
+    private static TransactionRequest overdraw() {
+        return TransactionRequest.builder()
+                .amount(OPENING_BALANCE.add(BigDecimal.ONE))
+                .description("Benchmark overdraw")
+                .build();
+    }
+}
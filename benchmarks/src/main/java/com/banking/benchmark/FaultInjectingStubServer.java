@@ -0,0 +1,51 @@
+﻿package com.banking.benchmark;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+final class FaultInjectingStubServer implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private FaultInjectingStubServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+    static FaultInjectingStubServer start(String body, long latencyMillis, double faultRate, long faultLatencyMillis) {
+        byte[] response = body.getBytes(StandardCharsets.UTF_8);
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+            ExecutorService executor = Executors.newFixedThreadPool(256);
+            server.setExecutor(executor);
+            server.createContext("/", exchange -> {
+                boolean fault = ThreadLocalRandom.current().nextDouble() < faultRate;
+                try {
+                    Thread.sleep(fault ? faultLatencyMillis : latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, response.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response);
+                }
+            });
+            server.start();
+            return new FaultInjectingStubServer(server, executor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,101 @@
+﻿package com.banking.benchmark;
+import com.banking.account.client.UserServiceClient;
+import com.banking.account.dto.UserDTO;
+import com.banking.account.resilience.HedgingPolicy;
+import com.banking.account.resilience.LatencyRegistry;
+import com.banking.account.resilience.ResilienceCapability;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Client;
+import feign.Feign;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryProperties;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class HedgedReadBenchmark {
+    private static final String SERVICE = "user-service";
+    private static final String USER_JSON =
+            "{\"id\":1,\"username\":\"bench\",\"email\":\"bench@example.com\",\"fullName\":\"Bench User\",\"isActive\":true}";
+    @Param({"false", "true"})
+    public boolean hedging;
+    @Param({"0.02"})
+    public double faultRate;
+    private final List<FaultInjectingStubServer> servers = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private ResilienceCapability capability;
+    private UserServiceClient client;
+    @Setup(Level.Trial)
+    public void setUp() {
+        SimpleDiscoveryProperties discovery = new SimpleDiscoveryProperties();
+        List<DefaultServiceInstance> instances = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            FaultInjectingStubServer server = FaultInjectingStubServer.start(USER_JSON, 2, faultRate, 250);
+            servers.add(server);
+            instances.add(new DefaultServiceInstance(SERVICE + "-" + i, SERVICE, "localhost", server.getPort(), false));
+        }
+        discovery.setInstances(Map.of(SERVICE, instances));
+        meterRegistry = new SimpleMeterRegistry();
+        capability = new ResilienceCapability(
+                new LatencyRegistry(meterRegistry, 0.95, 0.99, 3, Duration.ofMillis(100), Duration.ofSeconds(5),
+                        Duration.ofMillis(1), 100),
+                new HedgingPolicy(new SimpleDiscoveryClient(discovery), hedging),
+                meterRegistry, 64, 50, Duration.ofMillis(50));
+        ObjectMapper objectMapper = new ObjectMapper();
+        client = Feign.builder()
+                .contract(new SpringMvcContract())
+                .client(roundRobin(instances))
+                .decoder((response, type) ->
+                        objectMapper.readValue(response.body().asInputStream(), objectMapper.constructType(type)))
+                .addCapability(capability)
+                .target(UserServiceClient.class, "http://" + SERVICE);
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        capability.shutdown();
+        servers.forEach(FaultInjectingStubServer::close);
+        meterRegistry.close();
+    }
+    @Benchmark
+    @Threads(16)
+    public UserDTO getUserById() {
+        return client.getUserById(ThreadLocalRandom.current().nextLong(1, 1000));
+    }
+    private static Client roundRobin(List<DefaultServiceInstance> instances) {
+        Client http = new Client.Default(null, null);
+        AtomicInteger next = new AtomicInteger();
+        return (request, options) -> {
+            DefaultServiceInstance instance = instances.get(Math.floorMod(next.getAndIncrement(), instances.size()));
+            String url = request.url().replace("http://" + SERVICE, instance.getUri().toString());
+            return http.execute(Request.create(request.httpMethod(), url, request.headers(), request.body(),
+                    request.charset(), request.requestTemplate()), options);
+        };
+    }
+}
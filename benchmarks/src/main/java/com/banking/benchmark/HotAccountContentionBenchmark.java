@@ -0,0 +1,82 @@
+﻿package com.banking.benchmark;
+import com.banking.account.AccountServiceApplication;
+import com.banking.account.dto.AccountDTO;
+import com.banking.account.dto.TransactionRequest;
+import com.banking.account.entity.Account;
+import com.banking.account.entity.AccountType;
+import com.banking.account.repository.AccountRepository;
+import com.banking.account.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class HotAccountContentionBenchmark {
+    private static final String ACCOUNT_NUMBER = "HOT0000000001";
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+    @Param({"0", "16", "64"})
+    public int slots;
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start();
+        context = ServiceContexts.start(database, Map.of("account.striping.refresh-ms", "1000"),
+                AccountServiceApplication.class);
+        accountService = context.getBean(AccountService.class);
+        context.getBean(AccountRepository.class).save(Account.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .userId(1L)
+                .accountType(AccountType.CHECKING)
+                .balance(OPENING_BALANCE)
+                .build());
+        accountService.configureBalanceStriping(ACCOUNT_NUMBER, slots);
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try {
+            BigDecimal credited = context.getBean(JdbcTemplate.class).queryForObject(
+                    "SELECT COALESCE(SUM(amount), 0) FROM account_history WHERE account_number = ? AND action = 'CREDITED'",
+                    BigDecimal.class, ACCOUNT_NUMBER);
+            BigDecimal balance = accountService.getAccountByNumber(ACCOUNT_NUMBER).getBalance();
+            if (balance.compareTo(OPENING_BALANCE.add(credited)) != 0) {
+                throw new IllegalStateException("Balance " + balance + " does not match opening balance plus "
+                        + credited + " credited");
+            }
+        } finally {
+            context.close();
+            database.close();
+        }
+    }
+    @Benchmark
+    @Threads(64)
+    public AccountDTO creditHotAccount() {
+        return accountService.creditAccount(ACCOUNT_NUMBER, TransactionRequest.builder()
+                .amount(BigDecimal.ONE)
+                .transactionId(UUID.randomUUID().toString())
+                .description("Benchmark credit")
+                .build());
+    }
+}
@@ -0,0 +1,33 @@
+﻿package com.banking.benchmark;
+import com.banking.transaction.id.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class IdAllocationBenchmark {
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(() -> 1);
+    @Benchmark
+    @Threads(4)
+    public String legacyTransactionId() {
+        return "TXN" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+    @Benchmark
+    @Threads(4)
+    public String snowflakeTransactionId() {
+        return "TXN" + SnowflakeIdGenerator.toSortableString(generator.nextId());
+    }
+}
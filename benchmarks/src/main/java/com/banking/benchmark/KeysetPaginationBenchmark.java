@@ -0,0 +1,87 @@
+﻿package com.banking.benchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class KeysetPaginationBenchmark {
+    private static final String HOT_ACCOUNT = "ACC0000000000";
+    private static final int PAGE_SIZE = 50;
+    private static final String OFFSET_PAGE = "SELECT * FROM transactions WHERE from_account = ? OR to_account = ? "
+            + "ORDER BY created_at DESC LIMIT ? OFFSET ?";
+    private static final String OFFSET_COUNT = "SELECT COUNT(*) FROM transactions WHERE from_account = ? OR to_account = ?";
+    private static final String KEYSET_PAGE = "SELECT * FROM ("
+            + "(SELECT * FROM transactions WHERE from_account = ? "
+            + "AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ?) "
+            + "UNION ALL "
+            + "(SELECT * FROM transactions WHERE to_account = ? AND from_account <> ? "
+            + "AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ?)"
+            + ") t ORDER BY created_at DESC, id DESC LIMIT ?";
+    @Param({"10000000"})
+    public int rows;
+    @Param({"1", "100", "10000"})
+    public int page;
+    private BenchmarkDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private Timestamp cursorCreatedAt;
+    private long cursorId;
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start();
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(database.getJdbcUrl(), "postgres", "postgres"));
+        jdbcTemplate.execute("CREATE TABLE transactions (id BIGSERIAL PRIMARY KEY, "
+                + "transaction_id VARCHAR(50) NOT NULL, from_account VARCHAR(20) NOT NULL, "
+                + "to_account VARCHAR(20) NOT NULL, amount NUMERIC(15, 2) NOT NULL, created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("INSERT INTO transactions (transaction_id, from_account, to_account, amount, created_at) "
+                + "SELECT 'TXN' || lpad(i::text, 19, '0'), "
+                + "CASE WHEN i % 5 = 0 THEN '" + HOT_ACCOUNT + "' ELSE 'ACC' || lpad((i % 10000 + 1)::text, 10, '0') END, "
+                + "CASE WHEN i % 7 = 0 THEN '" + HOT_ACCOUNT + "' ELSE 'ACC' || lpad((i % 9973 + 1)::text, 10, '0') END, "
+                + "(i % 1000) + 1, timestamp '2024-01-01' + i * interval '1 second' "
+                + "FROM generate_series(1, " + rows + ") AS i");
+        jdbcTemplate.execute("CREATE INDEX idx_transactions_from_account_created ON transactions (from_account, created_at, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_transactions_to_account_created ON transactions (to_account, created_at, id)");
+        jdbcTemplate.execute("VACUUM ANALYZE transactions");
+        Map<String, Object> cursor = jdbcTemplate.queryForMap(
+                "SELECT created_at, id FROM transactions WHERE from_account = ? OR to_account = ? "
+                        + "ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET ?",
+                HOT_ACCOUNT, HOT_ACCOUNT, page * PAGE_SIZE - 1);
+        cursorCreatedAt = (Timestamp) cursor.get("created_at");
+        cursorId = ((Number) cursor.get("id")).longValue();
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+    @Benchmark
+    public List<Map<String, Object>> offsetPage() {
+        jdbcTemplate.queryForObject(OFFSET_COUNT, Long.class, HOT_ACCOUNT, HOT_ACCOUNT);
+        return jdbcTemplate.queryForList(OFFSET_PAGE, HOT_ACCOUNT, HOT_ACCOUNT, PAGE_SIZE, page * PAGE_SIZE);
+    }
+    @Benchmark
+    public List<Map<String, Object>> keysetPage() {
+        return jdbcTemplate.queryForList(KEYSET_PAGE,
+                HOT_ACCOUNT, cursorCreatedAt, cursorId, PAGE_SIZE,
+                HOT_ACCOUNT, HOT_ACCOUNT, cursorCreatedAt, cursorId, PAGE_SIZE,
+                PAGE_SIZE);
+    }
+}
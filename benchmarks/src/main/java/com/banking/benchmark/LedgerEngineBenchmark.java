@@ -0,0 +1,112 @@
+﻿package com.banking.benchmark;
+import com.banking.account.AccountServiceApplication;
+import com.banking.account.dto.AccountDTO;
+import com.banking.account.dto.PostingType;
+import com.banking.account.dto.TransactionRequest;
+import com.banking.account.entity.Account;
+import com.banking.account.entity.AccountType;
+import com.banking.account.ledger.LedgerEngine;
+import com.banking.account.repository.AccountRepository;
+import com.banking.account.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class LedgerEngineBenchmark {
+    private static final int PIPELINE_DEPTH = 1024;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000.00");
+    private static final TransactionRequest CREDIT = TransactionRequest.builder()
+            .amount(BigDecimal.ONE)
+            .description("Benchmark credit")
+            .build();
+    @Param({"10000"})
+    public int accounts;
+    @Param({"0"})
+    public int shards;
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private Path journalDirectory;
+    private AccountService accountService;
+    private LedgerEngine ledgerEngine;
+    private String[] accountNumbers;
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        database = BenchmarkDatabase.start();
+        journalDirectory = Files.createTempDirectory("ledger-benchmark");
+        context = ServiceContexts.start(database, Map.of(
+                "account.posting.mode", "LEDGER",
+                "account.ledger.shards", String.valueOf(shards),
+                "account.ledger.journal.dir", journalDirectory.toString()), AccountServiceApplication.class);
+        accountService = context.getBean(AccountService.class);
+        ledgerEngine = context.getBean(LedgerEngine.class);
+        List<Account> seeded = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            seeded.add(Account.builder()
+                    .accountNumber(String.format("LEDGER%09d", i))
+                    .userId((long) i)
+                    .accountType(AccountType.CHECKING)
+                    .balance(OPENING_BALANCE)
+                    .build());
+        }
+        accountNumbers = context.getBean(AccountRepository.class).saveAll(seeded).stream()
+                .map(Account::getAccountNumber)
+                .toArray(String[]::new);
+        for (String accountNumber : accountNumbers) {
+            ledgerEngine.post(accountNumber, PostingType.CREDIT, CREDIT);
+        }
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        database.close();
+        FileSystemUtils.deleteRecursively(journalDirectory);
+    }
+    @Benchmark
+    @Threads(64)
+    public AccountDTO creditAccount() {
+        return accountService.creditAccount(randomAccount(), CREDIT);
+    }
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(PIPELINE_DEPTH)
+    public AccountDTO pipelinedPostings() {
+        CompletableFuture<?>[] submitted = new CompletableFuture<?>[PIPELINE_DEPTH];
+        for (int i = 0; i < PIPELINE_DEPTH; i++) {
+            submitted[i] = ledgerEngine.submit(randomAccount(), PostingType.CREDIT, CREDIT);
+        }
+        CompletableFuture.allOf(submitted).join();
+        return (AccountDTO) submitted[PIPELINE_DEPTH - 1].join();
+    }
+    private String randomAccount() {
+        return accountNumbers[ThreadLocalRandom.current().nextInt(accountNumbers.length)];
+    }
+}
@@ -0,0 +1,94 @@
+﻿package com.banking.benchmark;
+import com.banking.transaction.loadbalancer.InstanceLatencyTracker;
+import com.banking.transaction.loadbalancer.LatencyAwareLoadBalancer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class LoadBalancerSimulationBenchmark {
+    private static final String SERVICE = "account-service";
+    private static final long[][] INSTANCE_PROFILES = {
+            {2, 0, 0},
+            {2, 0, 0},
+            {3, 1, 100},
+            {15, 10, 250}
+    };
+    @Param({"round-robin", "latency-aware"})
+    public String balancer;
+    private final List<FaultInjectingStubServer> servers = new ArrayList<>();
+    private ReactorServiceInstanceLoadBalancer loadBalancer;
+    private InstanceLatencyTracker tracker;
+    private HttpClient client;
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<ServiceInstance> instances = new ArrayList<>();
+        for (int i = 0; i < INSTANCE_PROFILES.length; i++) {
+            long[] profile = INSTANCE_PROFILES[i];
+            FaultInjectingStubServer server = FaultInjectingStubServer.start("{}", profile[0], profile[1] / 100.0,
+                    profile[2]);
+            servers.add(server);
+            instances.add(new DefaultServiceInstance(SERVICE + "-" + i, SERVICE, "localhost", server.getPort(), false));
+        }
+        tracker = new InstanceLatencyTracker(Duration.ofSeconds(10), Duration.ofMillis(50), Duration.ofSeconds(1));
+        ServiceInstance[] candidates = instances.toArray(new ServiceInstance[0]);
+        loadBalancer = "round-robin".equals(balancer)
+                ? new RoundRobinLoadBalancer(ServiceInstanceListSuppliers.toProvider(SERVICE, candidates), SERVICE)
+                : new LatencyAwareLoadBalancer(ServiceInstanceListSuppliers.toProvider(SERVICE, candidates), tracker);
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        servers.forEach(FaultInjectingStubServer::close);
+    }
+    @Benchmark
+    @Threads(32)
+    public int call() throws IOException, InterruptedException {
+        ServiceInstance instance = loadBalancer.choose(new DefaultRequest<>()).block().getServer();
+        URI uri = URI.create("http://localhost:" + instance.getPort() + "/api/accounts/lookup");
+        tracker.start(instance);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            int status = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+            failed = status >= 500;
+            return status;
+        } finally {
+            tracker.complete(instance, System.nanoTime() - start, failed);
+        }
+    }
+}
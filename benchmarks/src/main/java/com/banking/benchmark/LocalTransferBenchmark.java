@@ -0,0 +1,113 @@
+﻿package com.banking.benchmark;
+import com.banking.account.AccountServiceApplication;
+import com.banking.account.entity.Account;
+import com.banking.account.entity.AccountType;
+import com.banking.account.repository.AccountRepository;
+import com.banking.transaction.TransactionServiceApplication;
+import com.banking.transaction.dto.TransactionDTO;
+import com.banking.transaction.dto.TransferRequest;
+import com.banking.transaction.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class LocalTransferBenchmark {
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000.00");
+    @Param({"true", "false"})
+    public boolean localTransfer;
+    @Param({"1000"})
+    public int accounts;
+    private BenchmarkDatabase accountDatabase;
+    private BenchmarkDatabase transactionDatabase;
+    private ConfigurableApplicationContext accountContext;
+    private ConfigurableApplicationContext transactionContext;
+    private TransactionService transactionService;
+    private String[] accountNumbers;
+    @Setup(Level.Trial)
+    public void setUp() {
+        accountDatabase = BenchmarkDatabase.start();
+        accountContext = ServiceContexts.start(accountDatabase, WebApplicationType.SERVLET, Map.of(
+                        "server.port", "0",
+                        "spring.datasource.hikari.maximum-pool-size", "50"),
+                AccountServiceApplication.class);
+        List<Account> seeded = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            seeded.add(Account.builder()
+                    .accountNumber(String.format("BENCH%010d", i))
+                    .userId((long) i)
+                    .accountType(AccountType.CHECKING)
+                    .balance(OPENING_BALANCE)
+                    .build());
+        }
+        accountNumbers = accountContext.getBean(AccountRepository.class).saveAll(seeded).stream()
+                .map(Account::getAccountNumber)
+                .toArray(String[]::new);
+        String port = accountContext.getEnvironment().getProperty("local.server.port");
+        transactionDatabase = BenchmarkDatabase.start();
+        transactionContext = ServiceContexts.start(transactionDatabase, Map.of(
+                        "spring.cloud.openfeign.client.config.account-service.url", "http://localhost:" + port,
+                        "saga.local-transfer.enabled", String.valueOf(localTransfer),
+                        "spring.data.redis.port", "1"),
+                TransactionServiceApplication.class,
+                StubAccountLookupConfig.class,
+                SagaPersistenceBenchmark.InlineSagaConfig.class);
+        transactionService = transactionContext.getBean(TransactionService.class);
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        transactionContext.close();
+        transactionDatabase.close();
+        accountContext.close();
+        accountDatabase.close();
+    }
+    @Benchmark
+    @Threads(16)
+    public TransactionDTO transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accountNumbers.length);
+        int to = (from + 1 + random.nextInt(accountNumbers.length - 1)) % accountNumbers.length;
+        return transactionService.initiateTransfer(TransferRequest.builder()
+                .fromAccount(accountNumbers[from])
+                .toAccount(accountNumbers[to])
+                .amount(BigDecimal.ONE)
+                .description("Benchmark transfer")
+                .build(), null);
+    }
+    @Configuration
+    static class StubAccountLookupConfig {
+        @Bean
+        @Primary
+        StubAsyncAccountClient stubAsyncAccountClient(MeterRegistry meterRegistry) {
+            return new StubAsyncAccountClient(meterRegistry, Duration.ZERO, Duration.ZERO);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+﻿package com.banking.benchmark;
+import com.banking.account.dto.AccountDTO;
+import com.banking.account.entity.Account;
+import com.banking.account.entity.AccountType;
+import com.banking.transaction.dto.TransactionDTO;
+import com.banking.transaction.entity.Transaction;
+import com.banking.transaction.entity.TransactionStatus;
+import com.banking.transaction.entity.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MappingBenchmark {
+    private Transaction transaction;
+    private Account account;
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        transaction = Transaction.builder()
+                .id(1L)
+                .transactionId(UUID.randomUUID().toString())
+                .fromAccount("ACC1000000001")
+                .toAccount("ACC1000000002")
+                .amount(new BigDecimal("125.50"))
+                .transactionType(TransactionType.TRANSFER)
+                .status(TransactionStatus.COMPLETED)
+                .description("Benchmark transfer")
+                .initiatedBy(42L)
+                .createdAt(now)
+                .completedAt(now)
+                .build();
+        account = Account.builder()
+                .id(1L)
+                .accountNumber("ACC1000000001")
+                .userId(42L)
+                .accountType(AccountType.SAVINGS)
+                .balance(new BigDecimal("10000.00"))
+                .createdAt(now)
+                .updatedAt(now)
+                .version(3L)
+                .build();
+    }
+    @Benchmark
+    public TransactionDTO transactionDtoFrom() {
+        return TransactionDTO.from(transaction);
+    }
+    @Benchmark
+    public AccountDTO accountDtoFrom() {
+        return AccountDTO.from(account);
+    }
+}
@@ -0,0 +1,172 @@
+﻿package com.banking.benchmark;
+import com.banking.account.AccountServiceApplication;
+import com.banking.account.event.AccountBalanceChangedEvent;
+import com.banking.account.outbox.OutboxPublisher;
+import com.banking.account.outbox.OutboxRelay;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class OutboxRelayBenchmark {
+    private static final int EVENTS = 2000;
+    private static final int KEYS = 200;
+    private static final String TOPIC = "account-balance-events";
+    private static final String POISON_SQL = "INSERT INTO outbox_events (topic, message_key, event_type, payload, created_at) "
+            + "VALUES (?, ?, 'com.banking.account.event.RemovedEvent', '{}', ?)";
+    private static final String PENDING_SQL = "SELECT COUNT(*) FROM outbox_events WHERE sent_at IS NULL AND failed_at IS NULL";
+    @Param({"0", "1000"})
+    public int poisonEvents;
+    @Param({"1", "4"})
+    public int relays;
+    private BenchmarkDatabase database;
+    private BenchmarkKafka kafka;
+    private ConfigurableApplicationContext context;
+    private OutboxRelay relay;
+    private OutboxPublisher publisher;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private ObjectMapper objectMapper;
+    private ExecutorService relayThreads;
+    private long sequence;
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start();
+        kafka = BenchmarkKafka.start(TOPIC);
+        context = ServiceContexts.start(database, Map.of(
+                "spring.kafka.bootstrap-servers", kafka.getBootstrapServers(),
+                "outbox.relay.enabled", "true",
+                "outbox.relay.interval-ms", "3600000"), AccountServiceApplication.class);
+        relay = context.getBean(OutboxRelay.class);
+        publisher = context.getBean(OutboxPublisher.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        relayThreads = Executors.newFixedThreadPool(relays);
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        relayThreads.shutdownNow();
+        try {
+            verifyKeyOrder();
+        } finally {
+            context.close();
+            kafka.close();
+            database.close();
+        }
+    }
+    private void verifyKeyOrder() {
+        Map<String, Object> config = Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBootstrapServers(),
+                ConsumerConfig.GROUP_ID_CONFIG, "outbox-order-check",
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        Map<String, Long> lastSequence = new HashMap<>();
+        long received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        try (KafkaConsumer<String, String> consumer =
+                     new KafkaConsumer<>(config, new StringDeserializer(), new StringDeserializer())) {
+            consumer.subscribe(List.of(TOPIC));
+            while (received < sequence && System.nanoTime() < deadline) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(500))) {
+                    long current = readSequence(record.value());
+                    Long previous = lastSequence.put(record.key(), current);
+                    if (previous != null && current <= previous) {
+                        throw new IllegalStateException("Event " + current + " for key " + record.key()
+                                + " reached Kafka after event " + previous);
+                    }
+                    received++;
+                }
+            }
+        }
+        if (received < sequence) {
+            throw new IllegalStateException("Only " + received + " of " + sequence + " outbox events reached Kafka");
+        }
+    }
+    private long readSequence(String payload) {
+        try {
+            return objectMapper.readTree(payload).get("newBalance").longValue();
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not read relayed event: " + payload, e);
+        }
+    }
+    @Setup(Level.Invocation)
+    public void queueEvents() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> poison = new ArrayList<>(poisonEvents);
+        for (int i = 0; i < poisonEvents; i++) {
+            poison.add(new Object[]{TOPIC, "POISON" + i, now});
+        }
+        List<Map.Entry<String, AccountBalanceChangedEvent>> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            String accountNumber = String.format("BENCH%010d", i % KEYS);
+            long next = ++sequence;
+            events.add(Map.entry(accountNumber, AccountBalanceChangedEvent.builder()
+                    .accountNumber(accountNumber)
+                    .oldBalance(BigDecimal.valueOf(next - 1))
+                    .newBalance(BigDecimal.valueOf(next))
+                    .amount(BigDecimal.ONE)
+                    .transactionType("CREDIT")
+                    .timestamp(LocalDateTime.now())
+                    .build()));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(POISON_SQL, poison);
+            publisher.publishAll(TOPIC, events);
+        });
+    }
+    @TearDown(Level.Invocation)
+    public void verifyDrained() {
+        Long pending = jdbcTemplate.queryForObject(PENDING_SQL, Long.class);
+        if (pending == null || pending > 0) {
+            throw new IllegalStateException(pending + " outbox events were left pending after a relay run");
+        }
+    }
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void relay() {
+        if (relays == 1) {
+            relay.relay();
+            return;
+        }
+        CompletableFuture<?>[] runs = new CompletableFuture[relays];
+        for (int i = 0; i < relays; i++) {
+            runs[i] = CompletableFuture.runAsync(relay::relay, relayThreads);
+        }
+        CompletableFuture.allOf(runs).join();
+    }
+}
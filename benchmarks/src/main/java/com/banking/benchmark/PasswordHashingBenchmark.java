@@ -0,0 +1,110 @@
+﻿package com.banking.benchmark;
+import com.banking.user.UserServiceApplication;
+import com.banking.user.dto.RegisterRequest;
+import com.banking.user.dto.UserDTO;
+import com.banking.user.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class PasswordHashingBenchmark {
+    private static final String PASSWORD = "benchmark-password";
+    @Param({"bounded", "unbounded"})
+    public String hashingPool;
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI lookupUri;
+    private URI loginUri;
+    private String loginBody;
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean bounded = "bounded".equals(hashingPool);
+        database = BenchmarkDatabase.start();
+        context = ServiceContexts.start(database, WebApplicationType.SERVLET, Map.of(
+                        "server.port", "0",
+                        "server.tomcat.threads.max", "50",
+                        "jwt.secret", JwtBenchmark.SECRET,
+                        "jwt.expiration", "86400000",
+                        "security.password.bcrypt-strength", "12",
+                        "security.password.hashing.threads", bounded ? "0" : "200",
+                        "security.password.hashing.queue-capacity", bounded ? "16" : "100000"),
+                UserServiceApplication.class);
+        UserDTO user = context.getBean(UserService.class).registerUser(RegisterRequest.builder()
+                .username("bench")
+                .email("bench@example.com")
+                .password(PASSWORD)
+                .fullName("Bench User")
+                .build());
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        lookupUri = URI.create(base + "/api/users/" + user.getId());
+        loginUri = URI.create(base + "/api/auth/login");
+        loginBody = "{\"username\":\"bench\",\"password\":\"" + PASSWORD + "\"}";
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        database.close();
+    }
+    @Benchmark
+    @Group("quiet")
+    @GroupThreads(4)
+    public int lookup() throws IOException, InterruptedException {
+        return getUser();
+    }
+    @Benchmark
+    @Group("flood")
+    @GroupThreads(4)
+    public int lookupDuringFlood() throws IOException, InterruptedException {
+        return getUser();
+    }
+    @Benchmark
+    @Group("flood")
+    @GroupThreads(128)
+    public int login() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(loginUri)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(loginBody))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+    private int getUser() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(lookupUri)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
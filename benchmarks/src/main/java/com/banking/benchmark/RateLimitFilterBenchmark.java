@@ -0,0 +1,73 @@
+﻿package com.banking.benchmark;
+import com.banking.gateway.filter.AuthenticationFilter;
+import com.banking.gateway.filter.RateLimitFilter;
+import com.banking.gateway.ratelimit.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+public class RateLimitFilterBenchmark {
+    private static final GatewayFilterChain CHAIN = exchange -> Mono.empty();
+    @Param({"1", "100000"})
+    public int distinctUsers;
+    private GatewayFilter allowingFilter;
+    private GatewayFilter rejectingFilter;
+    @Setup
+    public void setUp() {
+        RateLimiterRegistry registry = new RateLimiterRegistry(null, new SimpleMeterRegistry(), false,
+                Duration.ofSeconds(1), 1_000_000, Duration.ofMinutes(10));
+        RateLimitFilter factory = new RateLimitFilter(registry, new SimpleMeterRegistry());
+        RateLimitFilter.Config unlimited = new RateLimitFilter.Config();
+        unlimited.setTiers(Map.of(RateLimitFilter.STANDARD_TIER, new RateLimitFilter.Limit(1e9, 1_000_000_000L)));
+        allowingFilter = factory.apply(unlimited);
+        RateLimitFilter.Config exhausted = new RateLimitFilter.Config();
+        exhausted.setTiers(Map.of(RateLimitFilter.STANDARD_TIER, new RateLimitFilter.Limit(0.001, 1)));
+        rejectingFilter = factory.apply(exhausted);
+    }
+    @Benchmark
+    @Threads(4)
+    public Void baseline() {
+        return CHAIN.filter(exchange()).block();
+    }
+    @Benchmark
+    @Threads(4)
+    public Void allowed() {
+        return allowingFilter.filter(exchange(), CHAIN).block();
+    }
+    @Benchmark
+    @Threads(4)
+    public Void rejected() {
+        return rejectingFilter.filter(exchange(), CHAIN).block();
+    }
+    private MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post("/api/transactions/transfer"));
+        exchange.getAttributes().put(AuthenticationFilter.USER_ID_ATTRIBUTE,
+                Integer.toString(ThreadLocalRandom.current().nextInt(distinctUsers)));
+        return exchange;
+    }
+}
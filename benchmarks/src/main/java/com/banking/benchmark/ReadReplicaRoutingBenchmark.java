@@ -0,0 +1,107 @@
+﻿package com.banking.benchmark;
+import com.banking.account.AccountServiceApplication;
+import com.banking.account.dto.AccountDTO;
+import com.banking.account.dto.AccountHistoryDTO;
+import com.banking.account.dto.TransactionRequest;
+import com.banking.account.entity.Account;
+import com.banking.account.entity.AccountType;
+import com.banking.account.repository.AccountRepository;
+import com.banking.account.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class ReadReplicaRoutingBenchmark {
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000.00");
+    private static final TransactionRequest DEBIT = TransactionRequest.builder()
+            .amount(BigDecimal.ONE)
+            .description("Benchmark debit")
+            .build();
+    @Param({"false", "true"})
+    public boolean replica;
+    @Param({"1000"})
+    public int accounts;
+    private BenchmarkDatabase primaryDatabase;
+    private BenchmarkDatabase replicaDatabase;
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private String[] accountNumbers;
+    @Setup(Level.Trial)
+    public void setUp() {
+        primaryDatabase = BenchmarkDatabase.start();
+        replicaDatabase = BenchmarkDatabase.start();
+        try (ConfigurableApplicationContext seeding = ServiceContexts.start(replicaDatabase, Map.of(),
+                AccountServiceApplication.class)) {
+            seed(seeding);
+        }
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.hikari.maximum-pool-size", "20");
+        if (replica) {
+            properties.put("persistence.replicas.urls", replicaDatabase.getJdbcUrl());
+            properties.put("persistence.replicas.pool-size", "20");
+        }
+        context = ServiceContexts.start(primaryDatabase, properties, AccountServiceApplication.class);
+        accountNumbers = seed(context);
+        accountService = context.getBean(AccountService.class);
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        primaryDatabase.close();
+        replicaDatabase.close();
+    }
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(16)
+    public List<AccountHistoryDTO> readHistory() {
+        return accountService.getAccountHistory(randomAccount());
+    }
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(16)
+    public AccountDTO debit() {
+        return accountService.debitAccount(randomAccount(), DEBIT);
+    }
+    private String randomAccount() {
+        return accountNumbers[ThreadLocalRandom.current().nextInt(accountNumbers.length)];
+    }
+    private String[] seed(ConfigurableApplicationContext target) {
+        List<Account> seeded = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            seeded.add(Account.builder()
+                    .accountNumber(String.format("BENCH%010d", i))
+                    .userId((long) i)
+                    .accountType(AccountType.CHECKING)
+                    .balance(OPENING_BALANCE)
+                    .build());
+        }
+        return target.getBean(AccountRepository.class).saveAll(seeded).stream()
+                .map(Account::getAccountNumber)
+                .toArray(String[]::new);
+    }
+}
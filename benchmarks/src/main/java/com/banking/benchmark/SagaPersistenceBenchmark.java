@@ -0,0 +1,101 @@
+﻿package com.banking.benchmark;
+import com.banking.transaction.TransactionServiceApplication;
+import com.banking.transaction.dto.TransactionDTO;
+import com.banking.transaction.dto.TransferRequest;
+import com.banking.transaction.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class SagaPersistenceBenchmark {
+    @Param({"1", "50"})
+    public int batchSize;
+    @Param({"false", "true"})
+    public boolean stepLog;
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private Statistics statistics;
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class PersistenceCounters {
+        public long statements;
+        public long rows;
+    }
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start();
+        context = ServiceContexts.start(database, Map.of(
+                        "persistence.jdbc.batch-size", String.valueOf(batchSize),
+                        "saga.step-log.enabled", String.valueOf(stepLog),
+                        "saga.local-transfer.enabled", "false",
+                        "spring.jpa.properties.hibernate.generate_statistics", "true",
+                        "spring.data.redis.port", "1"),
+                TransactionServiceApplication.class,
+                TransactionServiceBenchmark.StubAccountServiceConfig.class,
+                InlineSagaConfig.class);
+        transactionService = context.getBean(TransactionService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        database.close();
+    }
+    @Benchmark
+    public TransactionDTO transferSaga(PersistenceCounters counters) {
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long rowsBefore = statistics.getEntityInsertCount() + statistics.getEntityUpdateCount();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        TransactionDTO result = transactionService.initiateTransfer(TransferRequest.builder()
+                .fromAccount(String.format("BENCH%010d", random.nextInt(1000)))
+                .toAccount(String.format("BENCH%010d", 1000 + random.nextInt(1000)))
+                .amount(BigDecimal.TEN)
+                .description("Benchmark transfer")
+                .build(), null);
+        counters.statements += statistics.getPrepareStatementCount() - statementsBefore;
+        counters.rows += statistics.getEntityInsertCount() + statistics.getEntityUpdateCount() - rowsBefore;
+        return result;
+    }
+    @Configuration
+    static class InlineSagaConfig {
+        @Bean
+        @Primary
+        ThreadPoolTaskExecutor inlineSagaExecutor() {
+            return new ThreadPoolTaskExecutor() {
+                @Override
+                public void execute(Runnable task) {
+                    task.run();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,38 @@
+﻿package com.banking.benchmark;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.util.HashMap;
+import java.util.Map;
+public final class ServiceContexts {
+    private ServiceContexts() {
+    }
+    public static ConfigurableApplicationContext start(BenchmarkDatabase database, Map<String, Object> extraProperties,
+                                                       Class<?>... sources) {
+        return start(database, WebApplicationType.NONE, extraProperties, sources);
+    }
+    public static ConfigurableApplicationContext start(BenchmarkDatabase database, WebApplicationType webApplicationType,
+                                                       Map<String, Object> extraProperties, Class<?>... sources) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", database.getJdbcUrl());
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "postgres");
+        properties.put("spring.jpa.hibernate.ddl-auto", "update");
+        properties.put("spring.jpa.open-in-view", "false");
+        properties.put("eureka.client.enabled", "false");
+        properties.put("spring.cloud.discovery.enabled", "false");
+        properties.put("spring.cloud.gateway.enabled", "false");
+        properties.put("spring.kafka.listener.auto-startup", "false");
+        properties.put("spring.kafka.admin.auto-create", "false");
+        properties.put("outbox.relay.enabled", "false");
+        properties.put("management.tracing.enabled", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.putAll(extraProperties);
+        return new SpringApplicationBuilder(sources)
+                .web(webApplicationType)
+                .bannerMode(Banner.Mode.OFF)
+                .properties(properties)
+                .run();
+    }
+}
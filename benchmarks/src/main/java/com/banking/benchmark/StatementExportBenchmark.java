@@ -0,0 +1,101 @@
+﻿package com.banking.benchmark;
+import com.banking.account.AccountServiceApplication;
+import com.banking.account.dto.ExportFormat;
+import com.banking.account.entity.Account;
+import com.banking.account.entity.AccountType;
+import com.banking.account.repository.AccountRepository;
+import com.banking.account.service.StatementExportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx384m")
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class StatementExportBenchmark {
+    private static final String ACCOUNT_NUMBER = "EXP0000000001";
+    @Param({"5000000"})
+    public int rows;
+    @Param({"NDJSON", "CSV"})
+    public ExportFormat format;
+    @Param({"false", "true"})
+    public boolean gzip;
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private StatementExportService exportService;
+    private Long accountId;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final AtomicLong peakHeapBytes = new AtomicLong();
+    private ScheduledExecutorService heapSampler;
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start();
+        context = ServiceContexts.start(database, Map.of(), AccountServiceApplication.class);
+        exportService = context.getBean(StatementExportService.class);
+        accountId = context.getBean(AccountRepository.class).save(Account.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .userId(1L)
+                .accountType(AccountType.CHECKING)
+                .balance(BigDecimal.ZERO)
+                .build()).getId();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO account_history (id, account_id, account_number, action, old_balance, "
+                + "new_balance, amount, transaction_id, description, created_at) "
+                + "SELECT nextval('account_history_seq'), ?, ?, 'CREDITED', i - 1, i, 1, 'TXN' || i, "
+                + "'Benchmark statement line ' || i, timestamp '2024-01-01' + i * interval '1 second' "
+                + "FROM generate_series(1, " + rows + ") AS i", accountId, ACCOUNT_NUMBER);
+        jdbcTemplate.execute("VACUUM ANALYZE account_history");
+        heapSampler = Executors.newSingleThreadScheduledExecutor();
+        heapSampler.scheduleAtFixedRate(
+                () -> peakHeapBytes.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                0, 10, TimeUnit.MILLISECONDS);
+    }
+    @Setup(Level.Iteration)
+    public void resetPeak() {
+        System.gc();
+        peakHeapBytes.set(memory.getHeapMemoryUsage().getUsed());
+    }
+    @TearDown(Level.Iteration)
+    public void reportPeak() {
+        System.out.printf("%n%s gzip=%s peak heap used while exporting %d rows: %d MB%n",
+                format, gzip, rows, peakHeapBytes.get() >> 20);
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        heapSampler.shutdownNow();
+        context.close();
+        database.close();
+    }
+    @Benchmark
+    public long exportHistory() throws IOException {
+        long exported = exportService.exportHistory(accountId, null, null, format, gzip, OutputStream.nullOutputStream());
+        if (exported != rows) {
+            throw new IllegalStateException("Exported " + exported + " of " + rows + " rows");
+        }
+        return exported;
+    }
+}
@@ -0,0 +1,44 @@
+﻿package com.banking.benchmark;
+import com.banking.transaction.client.AsyncAccountClient;
+import com.banking.transaction.dto.AccountDTO;
+import com.banking.transaction.resilience.HedgingPolicy;
+import com.banking.transaction.resilience.LatencyRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+class StubAsyncAccountClient extends AsyncAccountClient {
+    private final Duration latency;
+    StubAsyncAccountClient(MeterRegistry meterRegistry, Duration batchWindow, Duration latency) {
+        super(WebClient.create(),
+                new LatencyRegistry(meterRegistry, 0.95, 0.99, 3, Duration.ofSeconds(30), Duration.ofSeconds(30),
+                        Duration.ZERO, Long.MAX_VALUE),
+                new HedgingPolicy(null, false),
+                meterRegistry, batchWindow, 100);
+        this.latency = latency;
+    }
+    @Override
+    protected Mono<Map<String, AccountDTO>> fetch(List<String> accountNumbers) {
+        Mono<Map<String, AccountDTO>> accounts = Mono.fromSupplier(() -> {
+            Map<String, AccountDTO> found = new HashMap<>();
+            for (String accountNumber : accountNumbers) {
+                found.put(accountNumber, account(accountNumber));
+            }
+            return found;
+        });
+        return latency.isZero() ? accounts : accounts.delayElement(latency);
+    }
+    static AccountDTO account(String accountNumber) {
+        return AccountDTO.builder()
+                .accountNumber(accountNumber)
+                .accountType("CHECKING")
+                .balance(new BigDecimal("1000000000.00"))
+                .currency("USD")
+                .status("ACTIVE")
+                .build();
+    }
+}
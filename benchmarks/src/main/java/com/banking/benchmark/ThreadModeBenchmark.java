@@ -0,0 +1,133 @@
+﻿package com.banking.benchmark;
+import com.banking.transaction.TransactionServiceApplication;
+import com.banking.transaction.client.AccountServiceClient;
+import com.banking.transaction.dto.AccountDTO;
+import com.banking.transaction.dto.AccountTransactionRequest;
+import com.banking.transaction.dto.AccountTransferRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class ThreadModeBenchmark {
+    static final long DOWNSTREAM_LATENCY_MILLIS = 20;
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI transferUri;
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start();
+        context = ServiceContexts.start(database, WebApplicationType.SERVLET, Map.of(
+                        "server.port", "0",
+                        "spring.threads.virtual.enabled", String.valueOf(virtualThreads),
+                        "spring.datasource.hikari.maximum-pool-size", "50",
+                        "account.cache.local.max-size", "0",
+                        "spring.data.redis.port", "1",
+                        "saga.executor.queue-capacity", "1000000"),
+                TransactionServiceApplication.class, SlowAccountServiceConfig.class);
+        String port = context.getEnvironment().getProperty("local.server.port");
+        transferUri = URI.create("http://localhost:" + port + "/api/transactions/transfer");
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        database.close();
+    }
+    @Benchmark
+    @Threads(1000)
+    public int transfer1kClients() throws IOException, InterruptedException {
+        return transfer();
+    }
+    @Benchmark
+    @Threads(5000)
+    public int transfer5kClients() throws IOException, InterruptedException {
+        return transfer();
+    }
+    private int transfer() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String body = String.format("{\"fromAccount\":\"BENCH%010d\",\"toAccount\":\"BENCH%010d\",\"amount\":10}",
+                random.nextInt(1000), 1000 + random.nextInt(1000));
+        HttpRequest request = HttpRequest.newBuilder(transferUri)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+    @Configuration
+    static class SlowAccountServiceConfig {
+        @Bean
+        @Primary
+        StubAsyncAccountClient slowAsyncAccountClient(MeterRegistry meterRegistry) {
+            return new StubAsyncAccountClient(meterRegistry, Duration.ofMillis(2),
+                    Duration.ofMillis(DOWNSTREAM_LATENCY_MILLIS));
+        }
+        @Bean
+        @Primary
+        AccountServiceClient slowAccountServiceClient() {
+            return new AccountServiceClient() {
+                @Override
+                public AccountDTO getAccount(String accountNumber) {
+                    return respond(accountNumber);
+                }
+                @Override
+                public AccountDTO debitAccount(String accountNumber, AccountTransactionRequest request) {
+                    return respond(accountNumber);
+                }
+                @Override
+                public AccountDTO creditAccount(String accountNumber, AccountTransactionRequest request) {
+                    return respond(accountNumber);
+                }
+                @Override
+                public AccountDTO transfer(AccountTransferRequest request) {
+                    return respond(request.getFromAccount());
+                }
+            };
+        }
+        private static AccountDTO respond(String accountNumber) {
+            try {
+                Thread.sleep(DOWNSTREAM_LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return StubAsyncAccountClient.account(accountNumber);
+        }
+    }
+}
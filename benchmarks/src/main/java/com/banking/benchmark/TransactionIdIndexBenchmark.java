@@ -0,0 +1,71 @@
+﻿package com.banking.benchmark;
+import com.banking.transaction.id.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class TransactionIdIndexBenchmark {
+    private static final int BATCH_SIZE = 100;
+    @Param({"LEGACY", "SNOWFLAKE"})
+    public String scheme;
+    @Param({"10000000"})
+    public int rows;
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(() -> 1);
+    private BenchmarkDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start();
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(database.getJdbcUrl(), "postgres", "postgres"));
+        jdbcTemplate.execute("CREATE TABLE transaction_ids (id BIGSERIAL PRIMARY KEY, "
+                + "transaction_id VARCHAR(50) NOT NULL UNIQUE, created_at TIMESTAMP NOT NULL DEFAULT now())");
+        String prefill = "LEGACY".equals(scheme)
+                ? "'TXN' || (1704067200000 + i) || upper(substr(md5(random()::text), 1, 8))"
+                : "'TXN' || lpad(((i::bigint) << 22)::text, 19, '0')";
+        jdbcTemplate.execute("INSERT INTO transaction_ids (transaction_id) SELECT " + prefill
+                + " FROM generate_series(1, " + rows + ") AS i");
+        jdbcTemplate.execute("VACUUM ANALYZE transaction_ids");
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Long indexBytes = jdbcTemplate.queryForObject(
+                "SELECT pg_relation_size('transaction_ids_transaction_id_key')", Long.class);
+        System.out.printf("%n%s transaction_id index size after run: %d bytes%n", scheme, indexBytes);
+        database.close();
+    }
+    @Benchmark
+    public int[] insertBatch() {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new Object[]{nextTransactionId()});
+        }
+        return jdbcTemplate.batchUpdate("INSERT INTO transaction_ids (transaction_id) VALUES (?)", batch);
+    }
+    private String nextTransactionId() {
+        if ("LEGACY".equals(scheme)) {
+            return "TXN" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        }
+        return "TXN" + SnowflakeIdGenerator.toSortableString(generator.nextId());
+    }
+}
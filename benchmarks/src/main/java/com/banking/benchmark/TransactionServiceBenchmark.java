@@ -0,0 +1,104 @@
+﻿package com.banking.benchmark;
+import com.banking.transaction.TransactionServiceApplication;
+import com.banking.transaction.client.AccountServiceClient;
+import com.banking.transaction.dto.AccountDTO;
+import com.banking.transaction.dto.AccountTransactionRequest;
+import com.banking.transaction.dto.AccountTransferRequest;
+import com.banking.transaction.dto.TransactionDTO;
+import com.banking.transaction.dto.TransferRequest;
+import com.banking.transaction.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class TransactionServiceBenchmark {
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start();
+        context = ServiceContexts.start(database, Map.of(
+                        "saga.executor.queue-capacity", "1000000",
+                        "spring.data.redis.port", "1"),
+                TransactionServiceApplication.class, StubAccountServiceConfig.class);
+        transactionService = context.getBean(TransactionService.class);
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        database.close();
+    }
+    @Benchmark
+    @Threads(4)
+    public TransactionDTO initiateTransfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        TransferRequest request = TransferRequest.builder()
+                .fromAccount(String.format("BENCH%010d", random.nextInt(1000)))
+                .toAccount(String.format("BENCH%010d", 1000 + random.nextInt(1000)))
+                .amount(BigDecimal.TEN)
+                .description("Benchmark transfer")
+                .initiatedBy(42L)
+                .build();
+        return transactionService.initiateTransfer(request, UUID.randomUUID().toString());
+    }
+    @Configuration
+    static class StubAccountServiceConfig {
+        @Bean
+        @Primary
+        StubAsyncAccountClient stubAsyncAccountClient(MeterRegistry meterRegistry) {
+            return new StubAsyncAccountClient(meterRegistry, Duration.ZERO, Duration.ZERO);
+        }
+        @Bean
+        @Primary
+        AccountServiceClient stubAccountServiceClient() {
+            return new AccountServiceClient() {
+                @Override
+                public AccountDTO getAccount(String accountNumber) {
+                    return account(accountNumber);
+                }
+                @Override
+                public AccountDTO debitAccount(String accountNumber, AccountTransactionRequest request) {
+                    return account(accountNumber);
+                }
+                @Override
+                public AccountDTO creditAccount(String accountNumber, AccountTransactionRequest request) {
+                    return account(accountNumber);
+                }
+                @Override
+                public AccountDTO transfer(AccountTransferRequest request) {
+                    return account(request.getFromAccount());
+                }
+            };
+        }
+        private static AccountDTO account(String accountNumber) {
+            return StubAsyncAccountClient.account(accountNumber);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+﻿package com.banking.benchmark;
+import com.banking.user.UserServiceApplication;
+import com.banking.user.dto.CursorPage;
+import com.banking.user.dto.PageCursor;
+import com.banking.user.dto.UserDTO;
+import com.banking.user.entity.KycStatus;
+import com.banking.user.entity.User;
+import com.banking.user.repository.UserRepository;
+import com.banking.user.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class UserDirectoryBenchmark {
+    private static final int PAGE_SIZE = 50;
+    @Param({"5000000"})
+    public int users;
+    @Param({"0.0", "0.5", "0.99"})
+    public double position;
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserRepository userRepository;
+    private String cursor;
+    private int offsetPage;
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start();
+        context = ServiceContexts.start(database, Map.of(
+                        "jwt.secret", JwtBenchmark.SECRET,
+                        "jwt.expiration", "86400000"),
+                UserServiceApplication.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, full_name, kyc_status, is_active, "
+                + "created_at, updated_at) SELECT g, 'user' || g, 'user' || g || '@example.com', 'x', 'User ' || g, "
+                + "(ARRAY['PENDING', 'VERIFIED', 'REJECTED'])[1 + g % 3], g % 10 <> 0, now(), now() "
+                + "FROM generate_series(1, ?) g", users);
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) SELECT g, r.id FROM generate_series(1, ?) g "
+                + "CROSS JOIN roles r WHERE r.name = 'CUSTOMER'", users);
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE user_roles");
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+        long startId = (long) (users * position);
+        cursor = startId == 0 ? null : new PageCursor(startId).encode();
+        offsetPage = (int) (startId / PAGE_SIZE);
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        database.close();
+    }
+    @Benchmark
+    public CursorPage<UserDTO> keysetPage() {
+        return userService.getUserDirectory(cursor, PAGE_SIZE, null, null);
+    }
+    @Benchmark
+    public CursorPage<UserDTO> keysetFilteredPage() {
+        return userService.getUserDirectory(cursor, PAGE_SIZE, KycStatus.VERIFIED, true);
+    }
+    @Benchmark
+    public Page<User> offsetEntityPage() {
+        return userRepository.findAll(PageRequest.of(offsetPage, PAGE_SIZE, Sort.by("id")));
+    }
+}
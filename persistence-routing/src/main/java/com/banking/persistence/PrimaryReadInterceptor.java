@@ -0,0 +1,44 @@
+﻿package com.banking.persistence;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+class PrimaryReadInterceptor implements MethodInterceptor {
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private final DefaultTransactionDefinition separateRead;
+    PrimaryReadInterceptor(ObjectProvider<PlatformTransactionManager> transactionManager) {
+        this.transactionManager = transactionManager;
+        this.separateRead = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.separateRead.setReadOnly(true);
+    }
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Boolean outer = PrimaryReads.enter();
+        try {
+            if (TransactionSynchronizationManager.isActualTransactionActive()
+                    && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                return proceedInSeparateTransaction(invocation);
+            }
+            return invocation.proceed();
+        } finally {
+            PrimaryReads.exit(outer);
+        }
+    }
+    private Object proceedInSeparateTransaction(MethodInvocation invocation) throws Throwable {
+        PlatformTransactionManager manager = transactionManager.getObject();
+        TransactionStatus status = manager.getTransaction(separateRead);
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            manager.rollback(status);
+            throw e;
+        }
+        manager.commit(status);
+        return result;
+    }
+}
@@ -0,0 +1,36 @@
+﻿package com.banking.persistence;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.function.Supplier;
+public final class PrimaryReads {
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+    private PrimaryReads() {
+    }
+    public static boolean isActive() {
+        return Boolean.TRUE.equals(ACTIVE.get());
+    }
+    public static <T> T call(Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new IllegalStateException("A read-only transaction may already hold a replica connection; "
+                    + "use @PrimaryRead on a method called from outside it");
+        }
+        Boolean outer = enter();
+        try {
+            return work.get();
+        } finally {
+            exit(outer);
+        }
+    }
+    static Boolean enter() {
+        Boolean outer = ACTIVE.get();
+        ACTIVE.set(Boolean.TRUE);
+        return outer;
+    }
+    static void exit(Boolean outer) {
+        if (outer == null) {
+            ACTIVE.remove();
+        } else {
+            ACTIVE.set(outer);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+﻿package com.banking.persistence;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReadYourWritesTracker readYourWrites;
+    private final double maxLagSeconds;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> decisions = new ConcurrentHashMap<>();
+    public ReadWriteRoutingDataSource(DataSource primary,
+                                      Map<String, DataSource> replicas,
+                                      ReadYourWritesTracker readYourWrites,
+                                      Duration maxLag,
+                                      Duration lagQueryTimeout,
+                                      MeterRegistry meterRegistry) {
+        this.readYourWrites = readYourWrites;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.meterRegistry = meterRegistry;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach((name, dataSource) -> {
+            targets.put(name, dataSource);
+            Replica replica = new Replica(name, dataSource, lagQueryTimeout);
+            this.replicas.add(replica);
+            Gauge.builder("datasource.replica.lag", replica, Replica::getLagSeconds)
+                    .description("Replication lag of the replica as last measured")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.available", replica, r -> isUsable(r) ? 1 : 0)
+                    .description("Whether read-only transactions may currently use the replica")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readYourWrites.recordAfterCommit();
+            return route(PRIMARY, "read-write");
+        }
+        if (PrimaryReads.isActive()) {
+            return route(PRIMARY, "primary-read");
+        }
+        if (readYourWrites.isPinned()) {
+            return route(PRIMARY, "read-your-writes");
+        }
+        if (replicas.isEmpty()) {
+            return route(PRIMARY, "no-replica");
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (isUsable(replica)) {
+                return route(replica.getName(), "read");
+            }
+        }
+        return route(PRIMARY, "replica-lag");
+    }
+    @Scheduled(fixedDelayString = "${persistence.replicas.lag-check-interval-ms:1000}")
+    public void checkReplicaLag() {
+        for (Replica replica : replicas) {
+            boolean wasUsable = isUsable(replica);
+            replica.refreshLag();
+            if (wasUsable != isUsable(replica)) {
+                log.warn("Replica {} is now {} (lag {}s, limit {}s)", replica.getName(),
+                        wasUsable ? "excluded from reads" : "serving reads", replica.getLagSeconds(), maxLagSeconds);
+            }
+        }
+        readYourWrites.purgeExpired();
+    }
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Could not close replica {}: {}", replica.getName(), e.getMessage());
+                }
+            }
+        }
+    }
+    private boolean isUsable(Replica replica) {
+        return replica.getLagSeconds() <= maxLagSeconds;
+    }
+    private String route(String target, String reason) {
+        decisions.computeIfAbsent(target + ':' + reason, key -> Counter.builder("datasource.routing")
+                        .description("Connections handed out by the routing data source")
+                        .tag("target", target)
+                        .tag("reason", reason)
+                        .register(meterRegistry))
+                .increment();
+        return target;
+    }
+}
@@ -0,0 +1,46 @@
+﻿package com.banking.persistence;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+public class ReadYourWritesTracker {
+    private final String header;
+    private final long windowNanos;
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    public ReadYourWritesTracker(String header, Duration window) {
+        this.header = header;
+        this.windowNanos = window.toNanos();
+    }
+    boolean isPinned() {
+        String key = currentKey();
+        if (key == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(key);
+        return until != null && until - System.nanoTime() > 0;
+    }
+    void recordAfterCommit() {
+        String key = currentKey();
+        if (key == null || windowNanos <= 0 || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pinnedUntil.put(key, System.nanoTime() + windowNanos);
+            }
+        });
+    }
+    void purgeExpired() {
+        long now = System.nanoTime();
+        pinnedUntil.values().removeIf(until -> until - now <= 0);
+    }
+    private String currentKey() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet.getRequest().getHeader(header) : null;
+    }
+}
@@ -0,0 +1,31 @@
+﻿package com.banking.persistence;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import javax.sql.DataSource;
+import java.time.Duration;
+@Slf4j
+@Getter
+class Replica {
+    private static final String LAG_SQL = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+    private final String name;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private volatile double lagSeconds = Double.POSITIVE_INFINITY;
+    Replica(String name, DataSource dataSource, Duration queryTimeout) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setQueryTimeout((int) Math.max(1, queryTimeout.toSeconds()));
+    }
+    void refreshLag() {
+        try {
+            Double lag = jdbcTemplate.queryForObject(LAG_SQL, Double.class);
+            lagSeconds = lag != null ? Math.max(0, lag) : 0;
+        } catch (RuntimeException e) {
+            log.debug("Lag check failed for replica {}: {}", name, e.getMessage());
+            lagSeconds = Double.POSITIVE_INFINITY;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+﻿package com.banking.persistence;
+import java.time.Duration;
+public record ReplicaCatchUp(Duration delay) {
+}
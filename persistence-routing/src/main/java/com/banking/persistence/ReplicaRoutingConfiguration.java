@@ -0,0 +1,81 @@
+﻿package com.banking.persistence;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+@Configuration
+@ConditionalOnProperty(name = "persistence.replicas.urls")
+public class ReplicaRoutingConfiguration {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${persistence.replicas.urls}") List<String> urls,
+            @Value("${persistence.replicas.username:}") String username,
+            @Value("${persistence.replicas.password:}") String password,
+            @Value("${persistence.replicas.pool-size:10}") int poolSize,
+            @Value("${persistence.replicas.max-lag:PT1S}") Duration maxLag,
+            @Value("${persistence.replicas.lag-query-timeout:PT1S}") Duration lagQueryTimeout,
+            @Value("${persistence.read-your-writes.header:X-User-Id}") String readYourWritesHeader,
+            @Value("${persistence.read-your-writes.window:PT2S}") Duration readYourWritesWindow) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas,
+                new ReadYourWritesTracker(readYourWritesHeader, readYourWritesWindow),
+                maxLag, lagQueryTimeout, meterRegistry);
+    }
+    @Bean
+    public ReplicaCatchUp replicaCatchUp(
+            @Value("${persistence.replicas.max-lag:PT1S}") Duration maxLag,
+            @Value("${persistence.replicas.lag-check-interval-ms:1000}") long lagCheckIntervalMs) {
+        return new ReplicaCatchUp(maxLag.plusMillis(lagCheckIntervalMs));
+    }
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor primaryReadAdvisor(ObjectProvider<PlatformTransactionManager> transactionManager) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(PrimaryRead.class),
+                new PrimaryReadInterceptor(transactionManager));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
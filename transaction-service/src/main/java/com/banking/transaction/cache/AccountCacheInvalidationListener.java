@@ -0,0 +1,33 @@
+﻿package com.banking.transaction.cache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountCacheInvalidationListener {
+    private final AccountMetadataCache accountMetadataCache;
+    private final ObjectMapper objectMapper;
+    @KafkaListener(topics = "#{'${account.cache.invalidation-topics:account-events,account-balance-events}'.split(',')}",
+            groupId = "transaction-service-account-cache-${random.uuid}",
+            containerFactory = "cacheInvalidationListenerFactory")
+    public void onAccountEvent(ConsumerRecord<String, String> record) {
+        String accountNumber = record.key();
+        if (accountNumber == null) {
+            try {
+                JsonNode event = objectMapper.readTree(record.value());
+                accountNumber = event.path("accountNumber").asText(null);
+            } catch (Exception e) {
+                log.warn("Ignoring unreadable account event on {}: {}", record.topic(), e.getMessage());
+                return;
+            }
+        }
+        if (accountNumber != null) {
+            accountMetadataCache.evict(accountNumber, record.timestamp());
+        }
+    }
+}
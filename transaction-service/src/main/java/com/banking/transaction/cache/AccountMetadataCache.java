@@ -0,0 +1,137 @@
+﻿package com.banking.transaction.cache;
+import com.banking.transaction.client.AsyncAccountClient;
+import com.banking.transaction.dto.AccountDTO;
+import com.banking.transaction.dto.AccountMetadata;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+@Slf4j
+@Component
+public class AccountMetadataCache {
+    private static final String REDIS_PREFIX = "account:metadata:";
+    private final AsyncAccountClient accountClient;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, AccountMetadata> local;
+    private final Duration redisTtl;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter invalidations;
+    private final Timer invalidationLag;
+    public AccountMetadataCache(AsyncAccountClient accountClient,
+                                StringRedisTemplate redisTemplate,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${account.cache.local.max-size:100000}") long localMaxSize,
+                                @Value("${account.cache.local.ttl:PT5M}") Duration localTtl,
+                                @Value("${account.cache.redis.ttl:PT30M}") Duration redisTtl) {
+        this.accountClient = accountClient;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisTtl = redisTtl;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "account-metadata");
+        this.redisHits = Counter.builder("account.cache.redis.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.redisMisses = Counter.builder("account.cache.redis.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("account.cache.invalidations")
+                .description("Account metadata entries evicted by account events")
+                .register(meterRegistry);
+        this.invalidationLag = Timer.builder("account.cache.staleness")
+                .description("Delay between an account event and the eviction of its cached metadata")
+                .register(meterRegistry);
+    }
+    public AccountMetadata get(String accountNumber) {
+        return getAll(List.of(accountNumber)).get(accountNumber);
+    }
+    public Map<String, AccountMetadata> getAll(Collection<String> accountNumbers) {
+        Map<String, AccountMetadata> found = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String accountNumber : accountNumbers) {
+            AccountMetadata metadata = local.getIfPresent(accountNumber);
+            if (metadata == null) {
+                metadata = readRedis(accountNumber);
+                if (metadata != null) {
+                    local.put(accountNumber, metadata);
+                }
+            }
+            if (metadata != null) {
+                found.put(accountNumber, metadata);
+            } else {
+                misses.add(accountNumber);
+            }
+        }
+        if (!misses.isEmpty()) {
+            Map<String, AccountDTO> accounts;
+            try {
+                accounts = accountClient.getAccounts(misses).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            for (AccountDTO account : accounts.values()) {
+                AccountMetadata metadata = AccountMetadata.from(account);
+                writeRedis(metadata);
+                local.put(account.getAccountNumber(), metadata);
+                found.put(account.getAccountNumber(), metadata);
+            }
+        }
+        return found;
+    }
+    public void evict(String accountNumber, long eventTimestamp) {
+        local.invalidate(accountNumber);
+        try {
+            redisTemplate.delete(REDIS_PREFIX + accountNumber);
+        } catch (Exception e) {
+            log.warn("Failed to evict account {} from Redis: {}", accountNumber, e.getMessage());
+        }
+        invalidations.increment();
+        if (eventTimestamp > 0) {
+            invalidationLag.record(Math.max(0, System.currentTimeMillis() - eventTimestamp), TimeUnit.MILLISECONDS);
+        }
+    }
+    private AccountMetadata readRedis(String accountNumber) {
+        try {
+            String json = redisTemplate.opsForValue().get(REDIS_PREFIX + accountNumber);
+            if (json == null) {
+                redisMisses.increment();
+                return null;
+            }
+            redisHits.increment();
+            return objectMapper.readValue(json, AccountMetadata.class);
+        } catch (Exception e) {
+            log.warn("Redis lookup failed for account {}: {}", accountNumber, e.getMessage());
+            return null;
+        }
+    }
+    private void writeRedis(AccountMetadata metadata) {
+        try {
+            redisTemplate.opsForValue().set(REDIS_PREFIX + metadata.getAccountNumber(),
+                    objectMapper.writeValueAsString(metadata), redisTtl);
+        } catch (Exception e) {
+            log.warn("Failed to cache account {} in Redis: {}", metadata.getAccountNumber(), e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 ﻿package com.banking.transaction.client;
 import com.banking.transaction.dto.AccountDTO;
 import com.banking.transaction.dto.AccountTransactionRequest;
+import com.banking.transaction.dto.AccountTransferRequest;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -18,4 +19,6 @@ public interface AccountServiceClient {
     AccountDTO creditAccount(
             @PathVariable("accountNumber") String accountNumber,
             @RequestBody AccountTransactionRequest request);
+    @PostMapping("/api/accounts/transfer")
+    AccountDTO transfer(@RequestBody AccountTransferRequest request);
 }
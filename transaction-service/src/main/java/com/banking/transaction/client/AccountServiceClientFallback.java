@@ -1,6 +1,7 @@
 ﻿package com.banking.transaction.client;
 import com.banking.transaction.dto.AccountDTO;
 import com.banking.transaction.dto.AccountTransactionRequest;
+import com.banking.transaction.dto.AccountTransferRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 @Slf4j
@@ -21,4 +22,10 @@ public class AccountServiceClientFallback implements AccountServiceClient {
         log.error("Fallback: Cannot credit account {}. Account service unavailable.", accountNumber);
         throw new RuntimeException("Account service unavailable for credit operation");
     }
+    @Override
+    public AccountDTO transfer(AccountTransferRequest request) {
+        log.error("Fallback: Cannot transfer from {} to {}. Account service unavailable.",
+                request.getFromAccount(), request.getToAccount());
+        throw new RuntimeException("Account service unavailable for transfer operation");
+    }
 }
@@ -0,0 +1,201 @@
+﻿package com.banking.transaction.client;
+import com.banking.transaction.dto.AccountDTO;
+import com.banking.transaction.dto.AccountLookupRequest;
+import com.banking.transaction.resilience.DependencyLatency;
+import com.banking.transaction.resilience.HedgingPolicy;
+import com.banking.transaction.resilience.LatencyRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+@Slf4j
+@Component
+public class AsyncAccountClient {
+    private static final String DEPENDENCY = "account-service";
+    private final WebClient webClient;
+    private final DependencyLatency latency;
+    private final HedgingPolicy hedgingPolicy;
+    private final Duration batchWindow;
+    private final int maxBatchSize;
+    private final Map<String, CompletableFuture<AccountDTO>> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock batchLock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler;
+    private final Counter roundTrips;
+    private final Counter joined;
+    private final DistributionSummary roundTripsSaved;
+    private List<PendingLookup> batch = new ArrayList<>();
+    private ScheduledFuture<?> flushTask;
+    public AsyncAccountClient(WebClient accountServiceWebClient,
+                              LatencyRegistry latencyRegistry,
+                              HedgingPolicy hedgingPolicy,
+                              MeterRegistry meterRegistry,
+                              @Value("${account.lookup.batch.window:PT0.002S}") Duration batchWindow,
+                              @Value("${account.lookup.batch.max-size:100}") int maxBatchSize) {
+        this.webClient = accountServiceWebClient;
+        this.latency = latencyRegistry.forDependency(DEPENDENCY, "read");
+        this.hedgingPolicy = hedgingPolicy;
+        this.batchWindow = batchWindow;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "account-lookup-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.roundTrips = Counter.builder("account.lookup.round-trips")
+                .description("Requests sent to account-service for account lookups")
+                .register(meterRegistry);
+        this.joined = Counter.builder("account.lookup.joined")
+                .description("Account lookups served by an identical request already in flight")
+                .register(meterRegistry);
+        this.roundTripsSaved = DistributionSummary.builder("account.lookup.round-trips.saved")
+                .description("Account-service round trips avoided per multi-account lookup")
+                .register(meterRegistry);
+    }
+    public CompletableFuture<Map<String, AccountDTO>> getAccounts(Collection<String> accountNumbers) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(accountNumbers));
+        List<CompletableFuture<AccountDTO>> futures = new ArrayList<>(distinct.size());
+        List<PendingLookup> led = new ArrayList<>(distinct.size());
+        for (String accountNumber : distinct) {
+            CompletableFuture<AccountDTO> future = new CompletableFuture<>();
+            CompletableFuture<AccountDTO> existing = inFlight.putIfAbsent(accountNumber, future);
+            if (existing != null) {
+                joined.increment();
+                futures.add(existing);
+                continue;
+            }
+            future.whenComplete((account, error) -> inFlight.remove(accountNumber, future));
+            PendingLookup lookup = new PendingLookup(accountNumber, future);
+            led.add(lookup);
+            futures.add(future);
+            enqueue(lookup);
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            double cost = 0;
+            for (PendingLookup lookup : led) {
+                cost += 1.0 / lookup.batchSize;
+            }
+            roundTripsSaved.record(accountNumbers.size() - cost);
+            Map<String, AccountDTO> accounts = new HashMap<>();
+            for (int i = 0; i < distinct.size(); i++) {
+                AccountDTO account = futures.get(i).join();
+                if (account != null) {
+                    accounts.put(distinct.get(i), account);
+                }
+            }
+            return accounts;
+        });
+    }
+    public CompletableFuture<AccountDTO> getAccount(String accountNumber) {
+        return getAccounts(List.of(accountNumber)).thenApply(accounts -> accounts.get(accountNumber));
+    }
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        scheduler.shutdown();
+    }
+    protected Mono<Map<String, AccountDTO>> fetch(List<String> accountNumbers) {
+        if (accountNumbers.size() == 1) {
+            String accountNumber = accountNumbers.get(0);
+            return webClient.get()
+                    .uri("/api/accounts/{accountNumber}", accountNumber)
+                    .retrieve()
+                    .bodyToMono(AccountDTO.class)
+                    .map(account -> Map.of(accountNumber, account))
+                    .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty())
+                    .defaultIfEmpty(Map.of());
+        }
+        return webClient.post()
+                .uri("/api/accounts/lookup")
+                .bodyValue(AccountLookupRequest.builder().accountNumbers(accountNumbers).build())
+                .retrieve()
+                .bodyToFlux(AccountDTO.class)
+                .collectMap(AccountDTO::getAccountNumber);
+    }
+    private void enqueue(PendingLookup lookup) {
+        List<PendingLookup> ready = null;
+        batchLock.lock();
+        try {
+            batch.add(lookup);
+            if (batch.size() >= maxBatchSize || batchWindow.isZero()) {
+                ready = drain();
+            } else if (batch.size() == 1) {
+                flushTask = scheduler.schedule(this::flush, batchWindow.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            batchLock.unlock();
+        }
+        if (ready != null) {
+            send(ready);
+        }
+    }
+    private void flush() {
+        List<PendingLookup> ready;
+        batchLock.lock();
+        try {
+            ready = drain();
+        } finally {
+            batchLock.unlock();
+        }
+        if (!ready.isEmpty()) {
+            send(ready);
+        }
+    }
+    private List<PendingLookup> drain() {
+        List<PendingLookup> ready = batch;
+        batch = new ArrayList<>();
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        return ready;
+    }
+    private void send(List<PendingLookup> lookups) {
+        List<String> accountNumbers = new ArrayList<>(lookups.size());
+        for (PendingLookup lookup : lookups) {
+            lookup.batchSize = lookups.size();
+            accountNumbers.add(lookup.accountNumber);
+        }
+        roundTrips.increment();
+        Mono<Map<String, AccountDTO>> call = Mono.defer(() -> {
+            long start = System.nanoTime();
+            return fetch(accountNumbers).doOnNext(accounts -> latency.record(System.nanoTime() - start));
+        }).timeout(latency.timeout());
+        if (hedgingPolicy.shouldHedge(DEPENDENCY)) {
+            call = Mono.firstWithValue(call, Mono.delay(latency.hedgeDelay()).then(call));
+        }
+        call.subscribe(accounts -> lookups.forEach(lookup -> lookup.future.complete(accounts.get(lookup.accountNumber))),
+                error -> {
+                    log.warn("Account lookup for {} accounts failed: {}", lookups.size(), error.getMessage());
+                    lookups.forEach(lookup -> lookup.future.completeExceptionally(error));
+                });
+    }
+    private static final class PendingLookup {
+        private final String accountNumber;
+        private final CompletableFuture<AccountDTO> future;
+        private volatile int batchSize = 1;
+        private PendingLookup(String accountNumber, CompletableFuture<AccountDTO> future) {
+            this.accountNumber = accountNumber;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+﻿package com.banking.transaction.config;
+import com.banking.transaction.id.NodeIdLease;
+import com.banking.transaction.id.SnowflakeIdGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+@Configuration
+public class IdConfig {
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator(NodeIdLease nodeIdLease) {
+        return new SnowflakeIdGenerator(nodeIdLease::getNodeId);
+    }
+}
@@ -1,10 +1,29 @@
 ﻿package com.banking.transaction.config;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
+import java.util.Map;
 @Configuration
 public class KafkaConfig {
+    @Value("${outbox.producer.linger-ms:20}")
+    private int lingerMs;
+    @Value("${outbox.producer.batch-size:131072}")
+    private int batchSize;
+    @Value("${outbox.producer.compression-type:lz4}")
+    private String compressionType;
+    @Bean
+    public DefaultKafkaProducerFactoryCustomizer outboxProducerCustomizer() {
+        return producerFactory -> producerFactory.updateConfigs(Map.of(
+                ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+                ProducerConfig.ACKS_CONFIG, "all",
+                ProducerConfig.LINGER_MS_CONFIG, lingerMs,
+                ProducerConfig.BATCH_SIZE_CONFIG, batchSize,
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType));
+    }
     @Bean
     public NewTopic transactionCompletedTopic() {
         return TopicBuilder.name("transaction-completed")
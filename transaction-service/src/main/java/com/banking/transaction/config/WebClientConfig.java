@@ -0,0 +1,16 @@
+﻿package com.banking.transaction.config;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+@Configuration
+public class WebClientConfig {
+    @Bean
+    public WebClient accountServiceWebClient(WebClient.Builder builder,
+                                             ReactorLoadBalancerExchangeFilterFunction loadBalancer) {
+        return builder
+                .baseUrl("http://account-service")
+                .filter(loadBalancer)
+                .build();
+    }
+}
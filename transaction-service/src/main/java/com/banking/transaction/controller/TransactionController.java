@@ -1,24 +1,33 @@
 ﻿package com.banking.transaction.controller;
 import com.banking.transaction.dto.*;
 import com.banking.transaction.entity.TransactionStatus;
+import com.banking.transaction.service.StatementExportService;
 import com.banking.transaction.service.TransactionService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 @RestController
 @RequestMapping("/api/transactions")
 @RequiredArgsConstructor
 public class TransactionController {
     private final TransactionService transactionService;
+    private final StatementExportService statementExportService;
     @PostMapping("/transfer")
-    public ResponseEntity<TransactionDTO> transfer(@Valid @RequestBody TransferRequest request) {
-        TransactionDTO transaction = transactionService.initiateTransfer(request);
-        return new ResponseEntity<>(transaction, HttpStatus.CREATED);
+    public ResponseEntity<TransactionDTO> transfer(
+            @Valid @RequestBody TransferRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        TransactionDTO transaction = transactionService.initiateTransfer(request, idempotencyKey);
+        return new ResponseEntity<>(transaction, HttpStatus.ACCEPTED);
     }
     @PostMapping("/deposit")
     public ResponseEntity<TransactionDTO> deposit(@Valid @RequestBody DepositRequest request) {
@@ -34,12 +43,40 @@ public class TransactionController {
     public ResponseEntity<TransactionDTO> getTransaction(@PathVariable String transactionId) {
         return ResponseEntity.ok(transactionService.getTransaction(transactionId));
     }
+    @GetMapping("/{transactionId}/status")
+    public ResponseEntity<TransactionStatusResponse> getTransactionStatus(@PathVariable String transactionId) {
+        return ResponseEntity.ok(transactionService.getTransactionStatus(transactionId));
+    }
     @GetMapping("/account/{accountNumber}")
     public ResponseEntity<Page<TransactionDTO>> getTransactionsByAccount(
             @PathVariable String accountNumber,
             Pageable pageable) {
         return ResponseEntity.ok(transactionService.getTransactionsByAccount(accountNumber, pageable));
     }
+    @GetMapping("/account/{accountNumber}/page")
+    public ResponseEntity<CursorPage<TransactionDTO>> getTransactionPageByAccount(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(transactionService.getTransactionPageByAccount(accountNumber, cursor, size));
+    }
+    @GetMapping("/account/{accountNumber}/export")
+    public void exportAccountTransactions(
+            @PathVariable String accountNumber,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        statementExportService.validateRange(from, to);
+        response.setContentType(format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + accountNumber + "-transactions." + format.getExtension() + "\"");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        statementExportService.exportAccountTransactions(accountNumber, from, to, format, gzip, response.getOutputStream());
+    }
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<TransactionDTO>> getTransactionsByUser(@PathVariable Long userId) {
         return ResponseEntity.ok(transactionService.getTransactionsByUser(userId));
@@ -0,0 +1,25 @@
+﻿package com.banking.transaction.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountMetadata {
+    private String accountNumber;
+    private Long userId;
+    private String accountType;
+    private String currency;
+    private String status;
+    public static AccountMetadata from(AccountDTO account) {
+        return AccountMetadata.builder()
+                .accountNumber(account.getAccountNumber())
+                .userId(account.getUserId())
+                .accountType(account.getAccountType())
+                .currency(account.getCurrency())
+                .status(account.getStatus())
+                .build();
+    }
+}
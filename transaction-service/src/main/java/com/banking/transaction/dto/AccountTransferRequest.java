@@ -0,0 +1,16 @@
+﻿package com.banking.transaction.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountTransferRequest {
+    private String fromAccount;
+    private String toAccount;
+    private BigDecimal amount;
+    private String transactionId;
+}
@@ -0,0 +1,11 @@
+﻿package com.banking.transaction.dto;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+    private final String contentType;
+    private final String extension;
+}
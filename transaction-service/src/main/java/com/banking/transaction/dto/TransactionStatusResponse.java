@@ -0,0 +1,20 @@
+﻿package com.banking.transaction.dto;
+import com.banking.transaction.entity.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionStatusResponse {
+    private String transactionId;
+    private TransactionStatus status;
+    private String errorMessage;
+    private List<TransactionStepDTO> steps;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
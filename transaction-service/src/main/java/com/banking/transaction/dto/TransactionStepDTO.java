@@ -0,0 +1,37 @@
+﻿package com.banking.transaction.dto;
+import com.banking.transaction.entity.SagaStep;
+import com.banking.transaction.entity.StepStatus;
+import com.banking.transaction.entity.TransactionStep;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionStepDTO {
+    private String stepName;
+    private Integer stepOrder;
+    private StepStatus status;
+    private String errorMessage;
+    private LocalDateTime completedAt;
+    public static TransactionStepDTO from(TransactionStep step) {
+        return TransactionStepDTO.builder()
+                .stepName(step.getStepName())
+                .stepOrder(step.getStepOrder())
+                .status(step.getStatus())
+                .errorMessage(step.getErrorMessage())
+                .completedAt(step.getCompletedAt())
+                .build();
+    }
+    public static TransactionStepDTO from(SagaStep step, StepStatus status, String errorMessage) {
+        return TransactionStepDTO.builder()
+                .stepName(step.name())
+                .stepOrder(step.getOrder())
+                .status(status)
+                .errorMessage(status == StepStatus.FAILED ? errorMessage : null)
+                .build();
+    }
+}
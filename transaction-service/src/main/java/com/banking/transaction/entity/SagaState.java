@@ -0,0 +1,27 @@
+﻿package com.banking.transaction.entity;
+import java.util.Collection;
+public final class SagaState {
+    public static final int INITIAL = 0;
+    private static final int BITS_PER_STEP = 2;
+    private static final int STEP_MASK = (1 << BITS_PER_STEP) - 1;
+    private static final StepStatus[] STATUSES = StepStatus.values();
+    private SagaState() {
+    }
+    public static StepStatus status(int state, SagaStep step) {
+        return STATUSES[(state >>> shift(step)) & STEP_MASK];
+    }
+    public static int with(int state, SagaStep step, StepStatus status) {
+        int shift = shift(step);
+        return (state & ~(STEP_MASK << shift)) | (status.ordinal() << shift);
+    }
+    public static int encode(Collection<TransactionStep> steps) {
+        int state = INITIAL;
+        for (TransactionStep step : steps) {
+            state = with(state, SagaStep.valueOf(step.getStepName()), step.getStatus());
+        }
+        return state;
+    }
+    private static int shift(SagaStep step) {
+        return BITS_PER_STEP * (step.getOrder() - 1);
+    }
+}
@@ -0,0 +1,11 @@
+﻿package com.banking.transaction.entity;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+@Getter
+@RequiredArgsConstructor
+public enum SagaStep {
+    DEBIT_FROM_ACCOUNT(1, "Debit"),
+    CREDIT_TO_ACCOUNT(2, "Credit");
+    private final int order;
+    private final String label;
+}
@@ -0,0 +1,35 @@
+﻿package com.banking.transaction.entity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+@Entity
+@Table(name = "saga_step_log", indexes = {
+        @Index(name = "idx_saga_step_log_transaction_id", columnList = "transaction_id, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SagaStepLog {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "saga_step_log_seq")
+    @SequenceGenerator(name = "saga_step_log_seq", sequenceName = "saga_step_log_seq", allocationSize = 50)
+    private Long id;
+    @Column(name = "transaction_id", nullable = false, length = 50)
+    private String transactionId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "step_name", nullable = false, length = 50)
+    private SagaStep step;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StepStatus status;
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
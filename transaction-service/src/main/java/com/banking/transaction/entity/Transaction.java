@@ -8,17 +8,23 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_from_account_created", columnList = "from_account, created_at, id"),
+        @Index(name = "idx_transactions_to_account_created", columnList = "to_account, created_at, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     @Column(name = "transaction_id", unique = true, nullable = false, length = 50)
     private String transactionId;
+    @Column(name = "idempotency_key", unique = true, length = 100)
+    private String idempotencyKey;
     @Column(name = "from_account", nullable = false, length = 20)
     private String fromAccount;
     @Column(name = "to_account", nullable = false, length = 20)
@@ -41,6 +47,12 @@ public class Transaction {
     private Long initiatedBy;
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
+    @Column(name = "saga_state")
+    private Integer sagaState;
+    @Column(name = "saga_owner", length = 64)
+    private String sagaOwner;
+    @Column(name = "saga_lease_until")
+    private LocalDateTime sagaLeaseUntil;
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class TransactionStep {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_steps_seq")
+    @SequenceGenerator(name = "transaction_steps_seq", sequenceName = "transaction_steps_seq", allocationSize = 50)
     private Long id;
     @Column(name = "transaction_id", nullable = false, length = 50)
     private String transactionId;
@@ -0,0 +1,99 @@
+﻿package com.banking.transaction.id;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+@Slf4j
+@Component
+public class NodeIdLease {
+    private final NodeLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final String owner;
+    private volatile int nodeId = -1;
+    private volatile long expiresAtMillis;
+    public NodeIdLease(NodeLeaseRepository leaseRepository,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${id.node-lease.ttl:PT60S}") Duration ttl) {
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+        this.owner = hostName() + ":" + UUID.randomUUID();
+    }
+    public int getNodeId() {
+        int current = nodeId;
+        if (current < 0) {
+            throw new IllegalStateException("No ID node lease is held");
+        }
+        if (System.currentTimeMillis() >= expiresAtMillis) {
+            throw new IllegalStateException("Lease on ID node " + current + " lapsed at "
+                    + Instant.ofEpochMilli(expiresAtMillis) + " without a successful renewal");
+        }
+        return current;
+    }
+    @PostConstruct
+    public void acquire() {
+        int start = ThreadLocalRandom.current().nextInt(SnowflakeIdGenerator.MAX_NODE_ID + 1);
+        for (int i = 0; i <= SnowflakeIdGenerator.MAX_NODE_ID; i++) {
+            int candidate = (start + i) & SnowflakeIdGenerator.MAX_NODE_ID;
+            long requestedAt = System.currentTimeMillis();
+            Integer claimed = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                return leaseRepository.claim(candidate, owner, now.plus(ttl), now);
+            });
+            if (claimed != null && claimed == 1) {
+                expiresAtMillis = requestedAt + ttl.toMillis();
+                nodeId = candidate;
+                log.info("Leased ID node {} as {}", candidate, owner);
+                return;
+            }
+        }
+        throw new IllegalStateException("All ID node leases are taken");
+    }
+    @Scheduled(fixedDelayString = "${id.node-lease.renew-interval-ms:15000}")
+    public void renew() {
+        int current = nodeId;
+        long requestedAt = System.currentTimeMillis();
+        Integer renewed;
+        try {
+            renewed = transactionTemplate.execute(status ->
+                    leaseRepository.renew(current, owner, LocalDateTime.now().plus(ttl)));
+        } catch (RuntimeException e) {
+            log.warn("Could not renew lease on ID node {}, it lapses at {}: {}",
+                    current, Instant.ofEpochMilli(expiresAtMillis), e.getMessage());
+            return;
+        }
+        if (renewed != null && renewed > 0) {
+            expiresAtMillis = requestedAt + ttl.toMillis();
+        } else {
+            log.warn("Lost lease on ID node {}, acquiring a new one", current);
+            nodeId = -1;
+            acquire();
+        }
+    }
+    @PreDestroy
+    public void release() {
+        int current = nodeId;
+        if (current >= 0) {
+            nodeId = -1;
+            transactionTemplate.execute(status -> leaseRepository.release(current, owner));
+        }
+    }
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
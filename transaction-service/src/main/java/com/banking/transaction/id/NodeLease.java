@@ -0,0 +1,22 @@
+﻿package com.banking.transaction.id;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+@Entity
+@Table(name = "id_node_leases")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NodeLease {
+    @Id
+    @Column(name = "node_id")
+    private Integer nodeId;
+    @Column(nullable = false, length = 100)
+    private String owner;
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,26 @@
+﻿package com.banking.transaction.id;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+@Repository
+public interface NodeLeaseRepository extends JpaRepository<NodeLease, Integer> {
+    @Modifying
+    @Query(value = "INSERT INTO id_node_leases (node_id, owner, expires_at) VALUES (:nodeId, :owner, :expiresAt) "
+            + "ON CONFLICT (node_id) DO UPDATE SET owner = EXCLUDED.owner, expires_at = EXCLUDED.expires_at "
+            + "WHERE id_node_leases.expires_at < :now OR id_node_leases.owner = EXCLUDED.owner", nativeQuery = true)
+    int claim(@Param("nodeId") int nodeId,
+              @Param("owner") String owner,
+              @Param("expiresAt") LocalDateTime expiresAt,
+              @Param("now") LocalDateTime now);
+    @Modifying
+    @Query("UPDATE NodeLease l SET l.expiresAt = :expiresAt WHERE l.nodeId = :nodeId AND l.owner = :owner")
+    int renew(@Param("nodeId") int nodeId,
+              @Param("owner") String owner,
+              @Param("expiresAt") LocalDateTime expiresAt);
+    @Modifying
+    @Query("DELETE FROM NodeLease l WHERE l.nodeId = :nodeId AND l.owner = :owner")
+    int release(@Param("nodeId") int nodeId, @Param("owner") String owner);
+}
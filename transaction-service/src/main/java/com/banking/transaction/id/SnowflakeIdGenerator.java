@@ -0,0 +1,65 @@
+﻿package com.banking.transaction.id;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+public class SnowflakeIdGenerator {
+    public static final long EPOCH_MILLIS = 1704067200000L;
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final int MAX_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+    private static final long MAX_CLOCK_DRIFT_MILLIS = 10;
+    private static final int SORTABLE_WIDTH = 19;
+    private final IntSupplier nodeId;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long lastTimestamp = -1;
+    private int sequence;
+    public SnowflakeIdGenerator(IntSupplier nodeId) {
+        this.nodeId = nodeId;
+    }
+    public long nextId() {
+        long node = nodeId.getAsInt() & MAX_NODE_ID;
+        lock.lock();
+        try {
+            long timestamp = System.currentTimeMillis();
+            if (timestamp < lastTimestamp) {
+                if (lastTimestamp - timestamp > MAX_CLOCK_DRIFT_MILLIS) {
+                    throw new IllegalStateException("Clock moved backwards by " + (lastTimestamp - timestamp) + " ms");
+                }
+                timestamp = waitUntil(lastTimestamp);
+            }
+            if (timestamp == lastTimestamp) {
+                sequence = (sequence + 1) & MAX_SEQUENCE;
+                if (sequence == 0) {
+                    timestamp = waitUntil(lastTimestamp + 1);
+                }
+            } else {
+                sequence = 0;
+            }
+            lastTimestamp = timestamp;
+            return ((timestamp - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS))
+                    | (node << SEQUENCE_BITS)
+                    | sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+    public static String toSortableString(long id) {
+        String digits = Long.toString(id);
+        StringBuilder sb = new StringBuilder(SORTABLE_WIDTH);
+        for (int i = digits.length(); i < SORTABLE_WIDTH; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+    private static long waitUntil(long target) {
+        long timestamp = System.currentTimeMillis();
+        while (timestamp < target) {
+            Thread.onSpinWait();
+            timestamp = System.currentTimeMillis();
+        }
+        return timestamp;
+    }
+}
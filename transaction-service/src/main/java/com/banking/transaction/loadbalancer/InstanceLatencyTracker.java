@@ -0,0 +1,115 @@
+﻿package com.banking.transaction.loadbalancer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+@Component
+@ConditionalOnProperty(name = "loadbalancer.latency-aware.enabled", havingValue = "true", matchIfMissing = true)
+public class InstanceLatencyTracker implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+    static final String WEIGHT_METADATA = "lb-weight";
+    static final String LATENCY_METADATA = "lb-latency-ms";
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final long decayNanos;
+    private final long defaultLatencyNanos;
+    private final long failurePenaltyNanos;
+    public InstanceLatencyTracker(@Value("${loadbalancer.latency-aware.decay:PT10S}") Duration decay,
+                                  @Value("${loadbalancer.latency-aware.default-latency:PT0.05S}") Duration defaultLatency,
+                                  @Value("${loadbalancer.latency-aware.failure-penalty:PT1S}") Duration failurePenalty) {
+        this.decayNanos = decay.toNanos();
+        this.defaultLatencyNanos = defaultLatency.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+    }
+    public double cost(ServiceInstance instance) {
+        InstanceStats instanceStats = stats(instance);
+        return instanceStats.latency(System.nanoTime()) * (instanceStats.outstanding.get() + 1) / instanceStats.weight;
+    }
+    public void start(ServiceInstance instance) {
+        stats(instance).outstanding.incrementAndGet();
+    }
+    public void complete(ServiceInstance instance, long elapsedNanos, boolean failed) {
+        InstanceStats instanceStats = stats(instance);
+        instanceStats.outstanding.decrementAndGet();
+        instanceStats.observe(failed ? Math.max(elapsedNanos, failurePenaltyNanos) : elapsedNanos, System.nanoTime());
+    }
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse.hasServer()) {
+            if (request.getContext() instanceof TimedRequestContext context) {
+                context.setRequestStartTime(System.nanoTime());
+            }
+            start(lbResponse.getServer());
+        }
+    }
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        long elapsed = 0;
+        if (completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext context
+                && context.getRequestStartTime() > 0) {
+            elapsed = System.nanoTime() - context.getRequestStartTime();
+        }
+        complete(lbResponse.getServer(), elapsed, completionContext.status() == CompletionContext.Status.FAILED);
+    }
+    private InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(instance.getHost() + ":" + instance.getPort(), key -> {
+            Map<String, String> metadata = instance.getMetadata();
+            long seed = defaultLatencyNanos;
+            double weight = 1;
+            if (metadata != null) {
+                if (metadata.containsKey(LATENCY_METADATA)) {
+                    seed = Duration.ofMillis(Long.parseLong(metadata.get(LATENCY_METADATA))).toNanos();
+                }
+                if (metadata.containsKey(WEIGHT_METADATA)) {
+                    weight = Math.max(0.01, Double.parseDouble(metadata.get(WEIGHT_METADATA)));
+                }
+            }
+            return new InstanceStats(seed, weight, System.nanoTime());
+        });
+    }
+    private final class InstanceStats {
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final double weight;
+        private double ewma;
+        private long updatedAt;
+        private InstanceStats(long seed, double weight, long now) {
+            this.ewma = seed;
+            this.weight = weight;
+            this.updatedAt = now;
+        }
+        private synchronized double latency(long now) {
+            return ewma * decay(now);
+        }
+        private synchronized void observe(long latencyNanos, long now) {
+            if (latencyNanos > ewma) {
+                ewma = latencyNanos;
+            } else {
+                double w = decay(now);
+                ewma = ewma * w + latencyNanos * (1 - w);
+            }
+            updatedAt = now;
+        }
+        private double decay(long now) {
+            return Math.exp(-(double) Math.max(0, now - updatedAt) / decayNanos);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+﻿package com.banking.transaction.outbox;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_pending", columnList = "sent_at, failed_at, id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false, length = 100)
+    private String topic;
+    @Column(name = "message_key", length = 100)
+    private String messageKey;
+    @Column(name = "event_type", nullable = false, length = 200)
+    private String eventType;
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+    @Column(name = "failed_at")
+    private LocalDateTime failedAt;
+    @Column(name = "failure_reason", length = 500)
+    private String failureReason;
+}
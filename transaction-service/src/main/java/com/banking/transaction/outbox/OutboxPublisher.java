@@ -0,0 +1,40 @@
+﻿package com.banking.transaction.outbox;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+@Component
+@RequiredArgsConstructor
+@Transactional
+public class OutboxPublisher {
+    private static final String INSERT_SQL = "INSERT INTO outbox_events (topic, message_key, event_type, payload, created_at) "
+            + "VALUES (?, ?, ?, ?, ?)";
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    public void publish(String topic, String key, Object event) {
+        jdbcTemplate.update(INSERT_SQL, row(topic, key, event, Timestamp.valueOf(LocalDateTime.now())));
+    }
+    public void publishAll(String topic, List<? extends Map.Entry<String, ?>> keyedEvents) {
+        if (keyedEvents.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, keyedEvents.stream()
+                .map(entry -> row(topic, entry.getKey(), entry.getValue(), now))
+                .collect(Collectors.toList()));
+    }
+    private Object[] row(String topic, String key, Object event, Timestamp createdAt) {
+        try {
+            return new Object[]{topic, key, event.getClass().getName(), objectMapper.writeValueAsString(event), createdAt};
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox event " + event.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+﻿package com.banking.transaction.repository;
+import com.banking.transaction.entity.SagaStepLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+@Repository
+public interface SagaStepLogRepository extends JpaRepository<SagaStepLog, Long> {
+    List<SagaStepLog> findByTransactionIdOrderByIdAsc(String transactionId);
+}
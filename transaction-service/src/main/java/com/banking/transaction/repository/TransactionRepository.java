@@ -1,28 +1,99 @@
 ﻿package com.banking.transaction.repository;
 import com.banking.transaction.entity.Transaction;
 import com.banking.transaction.entity.TransactionStatus;
+import com.banking.transaction.entity.TransactionType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     Optional<Transaction> findByTransactionId(String transactionId);
+    Optional<Transaction> findByIdempotencyKey(String idempotencyKey);
     List<Transaction> findByFromAccountOrToAccountOrderByCreatedAtDesc(String fromAccount, String toAccount);
     Page<Transaction> findByFromAccountOrToAccount(String fromAccount, String toAccount, Pageable pageable);
     List<Transaction> findByStatus(TransactionStatus status);
     List<Transaction> findByInitiatedByOrderByCreatedAtDesc(Long userId);
     @Query("SELECT t FROM Transaction t WHERE t.fromAccount = :accountNumber OR t.toAccount = :accountNumber ORDER BY t.createdAt DESC")
     Page<Transaction> findByAccountNumber(@Param("accountNumber") String accountNumber, Pageable pageable);
+    @Query(value = "SELECT * FROM ("
+            + "(SELECT * FROM transactions WHERE from_account = :accountNumber "
+            + "AND (created_at, id) < (:createdAt, :id) ORDER BY created_at DESC, id DESC LIMIT :limit) "
+            + "UNION ALL "
+            + "(SELECT * FROM transactions WHERE to_account = :accountNumber AND from_account <> :accountNumber "
+            + "AND (created_at, id) < (:createdAt, :id) ORDER BY created_at DESC, id DESC LIMIT :limit)"
+            + ") t ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Transaction> findPageByAccountNumber(
+            @Param("accountNumber") String accountNumber,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            @Param("limit") int limit);
     @Query("SELECT t FROM Transaction t WHERE t.createdAt BETWEEN :startDate AND :endDate")
     List<Transaction> findTransactionsBetweenDates(
             @Param("startDate") LocalDateTime startDate, 
             @Param("endDate") LocalDateTime endDate);
     @Query("SELECT COUNT(t) FROM Transaction t WHERE t.status = :status")
     long countByStatus(@Param("status") TransactionStatus status);
+    @Query("SELECT t.transactionId FROM Transaction t WHERE t.transactionType = :type AND t.status IN :statuses AND t.createdAt < :before ORDER BY t.createdAt")
+    List<String> findSagaCandidates(
+            @Param("type") TransactionType type,
+            @Param("statuses") Collection<TransactionStatus> statuses,
+            @Param("before") LocalDateTime before,
+            Pageable pageable);
+    @Query("SELECT t.transactionId FROM Transaction t WHERE t.transactionType = :type "
+            + "AND t.status = com.banking.transaction.entity.TransactionStatus.PROCESSING "
+            + "AND (t.sagaLeaseUntil IS NULL OR t.sagaLeaseUntil < :now) ORDER BY t.createdAt")
+    List<String> findExpiredSagaLeases(
+            @Param("type") TransactionType type,
+            @Param("now") LocalDateTime now,
+            Pageable pageable);
+    @Transactional
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = com.banking.transaction.entity.TransactionStatus.PROCESSING, "
+            + "t.sagaOwner = :owner, t.sagaLeaseUntil = :leaseUntil WHERE t.transactionId = :transactionId "
+            + "AND (t.status = com.banking.transaction.entity.TransactionStatus.PENDING "
+            + "OR (t.status = com.banking.transaction.entity.TransactionStatus.PROCESSING "
+            + "AND (t.sagaLeaseUntil IS NULL OR t.sagaLeaseUntil < :now)))")
+    int claimSaga(
+            @Param("transactionId") String transactionId,
+            @Param("owner") String owner,
+            @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil);
+    @Transactional
+    @Modifying
+    @Query("UPDATE Transaction t SET t.sagaState = :to, t.sagaLeaseUntil = :leaseUntil WHERE t.transactionId = :transactionId "
+            + "AND t.sagaState = :from AND t.sagaOwner = :owner "
+            + "AND t.status = com.banking.transaction.entity.TransactionStatus.PROCESSING")
+    int transitionSagaState(
+            @Param("transactionId") String transactionId,
+            @Param("owner") String owner,
+            @Param("from") int from,
+            @Param("to") int to,
+            @Param("leaseUntil") LocalDateTime leaseUntil);
+    @Transactional
+    @Modifying
+    @Query("UPDATE Transaction t SET t.sagaState = :state WHERE t.transactionId = :transactionId AND t.sagaState IS NULL")
+    int initializeSagaState(@Param("transactionId") String transactionId, @Param("state") int state);
+    @Transactional
+    @Modifying
+    @Query("UPDATE Transaction t SET t.sagaState = :to, t.status = :status, t.errorMessage = :errorMessage, "
+            + "t.completedAt = :completedAt, t.sagaLeaseUntil = NULL WHERE t.transactionId = :transactionId "
+            + "AND t.sagaState = :from AND t.sagaOwner = :owner "
+            + "AND t.status = com.banking.transaction.entity.TransactionStatus.PROCESSING")
+    int finishSaga(
+            @Param("transactionId") String transactionId,
+            @Param("owner") String owner,
+            @Param("from") int from,
+            @Param("to") int to,
+            @Param("status") TransactionStatus status,
+            @Param("errorMessage") String errorMessage,
+            @Param("completedAt") LocalDateTime completedAt);
 }
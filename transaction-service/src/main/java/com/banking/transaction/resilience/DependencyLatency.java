@@ -0,0 +1,61 @@
+﻿package com.banking.transaction.resilience;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+public class DependencyLatency {
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private final Timer timer;
+    private final LatencyRegistry settings;
+    private volatile long timeoutNanos;
+    private volatile long hedgeDelayNanos;
+    private volatile long refreshedAt;
+    DependencyLatency(Timer timer, LatencyRegistry settings) {
+        this.timer = timer;
+        this.settings = settings;
+        this.timeoutNanos = settings.getMaxTimeout().toNanos();
+        this.hedgeDelayNanos = timeoutNanos;
+        this.refreshedAt = System.nanoTime();
+    }
+    public void record(long nanos) {
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+    public Duration timeout() {
+        refresh();
+        return Duration.ofNanos(timeoutNanos);
+    }
+    public Duration hedgeDelay() {
+        refresh();
+        return Duration.ofNanos(hedgeDelayNanos);
+    }
+    private void refresh() {
+        long now = System.nanoTime();
+        if (now - refreshedAt < REFRESH_NANOS) {
+            return;
+        }
+        refreshedAt = now;
+        if (timer.count() < settings.getMinSamples()) {
+            return;
+        }
+        double hedgePercentile = 0;
+        double timeoutPercentile = 0;
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == settings.getHedgePercentile()) {
+                hedgePercentile = value.value(TimeUnit.NANOSECONDS);
+            }
+            if (value.percentile() == settings.getTimeoutPercentile()) {
+                timeoutPercentile = value.value(TimeUnit.NANOSECONDS);
+            }
+        }
+        if (timeoutPercentile <= 0) {
+            return;
+        }
+        long timeout = clamp((long) (timeoutPercentile * settings.getTimeoutMultiplier()),
+                settings.getMinTimeout().toNanos(), settings.getMaxTimeout().toNanos());
+        timeoutNanos = timeout;
+        hedgeDelayNanos = clamp((long) hedgePercentile, settings.getMinHedgeDelay().toNanos(), timeout / 2);
+    }
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,17 @@
+﻿package com.banking.transaction.resilience;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.stereotype.Component;
+@Component
+public class HedgingPolicy {
+    private final DiscoveryClient discoveryClient;
+    private final boolean enabled;
+    public HedgingPolicy(DiscoveryClient discoveryClient,
+                         @Value("${resilience.hedge.enabled:true}") boolean enabled) {
+        this.discoveryClient = discoveryClient;
+        this.enabled = enabled;
+    }
+    public boolean shouldHedge(String dependency) {
+        return enabled && discoveryClient != null && discoveryClient.getInstances(dependency).size() > 1;
+    }
+}
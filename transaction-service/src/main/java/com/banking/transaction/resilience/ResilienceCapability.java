@@ -0,0 +1,153 @@
+﻿package com.banking.transaction.resilience;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+@Component
+public class ResilienceCapability implements Capability {
+    private final LatencyRegistry latencyRegistry;
+    private final HedgingPolicy hedgingPolicy;
+    private final MeterRegistry meterRegistry;
+    private final BulkheadRegistry bulkheads;
+    private final ThreadPoolExecutor hedgeExecutor;
+    public ResilienceCapability(LatencyRegistry latencyRegistry,
+                                HedgingPolicy hedgingPolicy,
+                                MeterRegistry meterRegistry,
+                                @Value("${resilience.hedge.threads:64}") int hedgeThreads,
+                                @Value("${resilience.bulkhead.max-concurrent-calls:50}") int maxConcurrentCalls,
+                                @Value("${resilience.bulkhead.max-wait:PT0.05S}") Duration maxWait) {
+        this.latencyRegistry = latencyRegistry;
+        this.hedgingPolicy = hedgingPolicy;
+        this.meterRegistry = meterRegistry;
+        this.bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(maxWait)
+                .build());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hedgeExecutor = new ThreadPoolExecutor(hedgeThreads, hedgeThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(hedgeThreads * 4), runnable -> {
+                    Thread thread = new Thread(runnable, "feign-hedge-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.hedgeExecutor.allowCoreThreadTimeOut(true);
+    }
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            String dependency = URI.create(request.url()).getHost();
+            if (request.httpMethod() == Request.HttpMethod.GET) {
+                return read(client, request, options, dependency);
+            }
+            return write(client, request, options, dependency);
+        };
+    }
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.shutdown();
+    }
+    private Response read(Client client, Request request, Request.Options options, String dependency)
+            throws IOException {
+        DependencyLatency latency = latencyRegistry.forDependency(dependency, "read");
+        Request.Options adapted = adapt(options, latency);
+        if (!hedgingPolicy.shouldHedge(dependency)) {
+            return call(client, request, adapted, latency);
+        }
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        attempt(client, request, adapted, latency, result, pending, dependency, false);
+        CompletableFuture.runAsync(() -> {
+            if (!result.isDone()) {
+                pending.incrementAndGet();
+                meterRegistry.counter("dependency.hedge.requests", "dependency", dependency, "outcome", "sent")
+                        .increment();
+                attempt(client, request, adapted, latency, result, pending, dependency, true);
+            }
+        }, CompletableFuture.delayedExecutor(latency.hedgeDelay().toNanos(), TimeUnit.NANOSECONDS));
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + dependency);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+    private void attempt(Client client, Request request, Request.Options options, DependencyLatency latency,
+                         CompletableFuture<Response> result, AtomicInteger pending, String dependency,
+                         boolean hedge) {
+        Runnable task = () -> {
+            try {
+                Response response = call(client, request, options, latency);
+                if (!result.complete(response)) {
+                    response.close();
+                } else if (hedge) {
+                    meterRegistry.counter("dependency.hedge.requests", "dependency", dependency, "outcome", "won")
+                            .increment();
+                }
+            } catch (Exception e) {
+                if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
+                }
+            }
+        };
+        try {
+            hedgeExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (!hedge) {
+                task.run();
+            } else if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+    private Response write(Client client, Request request, Request.Options options, String dependency)
+            throws IOException {
+        DependencyLatency latency = latencyRegistry.forDependency(dependency, "write");
+        Bulkhead bulkhead = bulkheads.bulkhead(dependency);
+        bulkhead.acquirePermission();
+        try {
+            return call(client, request, adapt(options, latency), latency);
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+    private Response call(Client client, Request request, Request.Options options, DependencyLatency latency)
+            throws IOException {
+        long start = System.nanoTime();
+        try {
+            return client.execute(request, options);
+        } finally {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+    private Request.Options adapt(Request.Options options, DependencyLatency latency) {
+        long readTimeout = Math.min(latency.timeout().toMillis(), options.readTimeoutMillis());
+        return new Request.Options(options.connectTimeoutMillis(), TimeUnit.MILLISECONDS,
+                readTimeout, TimeUnit.MILLISECONDS, options.isFollowRedirects());
+    }
+}
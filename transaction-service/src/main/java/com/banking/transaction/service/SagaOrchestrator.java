@@ -0,0 +1,358 @@
+﻿package com.banking.transaction.service;
+import com.banking.transaction.client.AccountServiceClient;
+import com.banking.transaction.dto.AccountTransactionRequest;
+import com.banking.transaction.dto.AccountTransferRequest;
+import com.banking.transaction.entity.*;
+import com.banking.transaction.exception.TransactionException;
+import com.banking.transaction.repository.SagaStepLogRepository;
+import com.banking.transaction.repository.TransactionRepository;
+import com.banking.transaction.repository.TransactionStepRepository;
+import com.banking.persistence.PrimaryReads;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SagaOrchestrator {
+    private final TransactionRepository transactionRepository;
+    private final TransactionStepRepository stepRepository;
+    private final SagaStepLogRepository stepLogRepository;
+    private final AccountServiceClient accountServiceClient;
+    private final TransactionEventPublisher eventPublisher;
+    private final ThreadPoolTaskExecutor sagaExecutor;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final String owner = UUID.randomUUID().toString();
+    @Value("${saga.recovery.batch-size:500}")
+    private int recoveryBatchSize;
+    @Value("${saga.recovery.stale-after-seconds:10}")
+    private long staleAfterSeconds;
+    @Value("${saga.lease-seconds:60}")
+    private long leaseSeconds;
+    @Value("${saga.step-log.enabled:false}")
+    private boolean stepLogEnabled;
+    @Value("${saga.local-transfer.enabled:true}")
+    private boolean localTransferEnabled;
+    @Value("${saga.local-transfer.attempts:3}")
+    private int localTransferAttempts;
+    private Counter rejectedCounter;
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("saga.executor.queue.depth", sagaExecutor,
+                        executor -> executor.getThreadPoolExecutor().getQueue().size())
+                .description("Sagas waiting for an executor thread")
+                .register(meterRegistry);
+        Gauge.builder("saga.executor.active", sagaExecutor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Sagas currently executing")
+                .register(meterRegistry);
+        Gauge.builder("saga.in.flight", inFlight, Set::size)
+                .description("Sagas accepted by this instance and not yet finished")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("saga.rejected")
+                .description("Sagas rejected because the executor queue was full")
+                .register(meterRegistry);
+    }
+    public void submit(String transactionId) {
+        submit(transactionId, null);
+    }
+    public void submit(Transaction accepted) {
+        submit(accepted.getTransactionId(), accepted);
+    }
+    private void submit(String transactionId, Transaction accepted) {
+        try {
+            sagaExecutor.execute(() -> execute(transactionId, accepted));
+        } catch (TaskRejectedException e) {
+            rejectedCounter.increment();
+            log.warn("Saga executor saturated, transaction {} left PENDING for recovery", transactionId);
+        }
+    }
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInFlightSagas() {
+        List<String> candidates = transactionRepository.findSagaCandidates(TransactionType.TRANSFER,
+                EnumSet.of(TransactionStatus.PENDING, TransactionStatus.PROCESSING),
+                LocalDateTime.now(), PageRequest.of(0, recoveryBatchSize));
+        if (!candidates.isEmpty()) {
+            log.info("Resuming {} in-flight sagas after restart", candidates.size());
+        }
+        candidates.forEach(this::submit);
+    }
+    @Scheduled(fixedDelayString = "${saga.recovery.interval-ms:30000}")
+    public void recoverStalledSagas() {
+        transactionRepository.findSagaCandidates(TransactionType.TRANSFER,
+                        EnumSet.of(TransactionStatus.PENDING),
+                        LocalDateTime.now().minusSeconds(staleAfterSeconds), PageRequest.of(0, recoveryBatchSize))
+                .stream()
+                .filter(transactionId -> !inFlight.contains(transactionId))
+                .forEach(this::submit);
+        transactionRepository.findExpiredSagaLeases(TransactionType.TRANSFER, LocalDateTime.now(),
+                        PageRequest.of(0, recoveryBatchSize))
+                .stream()
+                .filter(transactionId -> !inFlight.contains(transactionId))
+                .forEach(this::submit);
+    }
+    void execute(String transactionId, Transaction accepted) {
+        if (!inFlight.add(transactionId)) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "skipped";
+        try {
+            Transaction transaction = accepted != null
+                    ? accepted
+                    : PrimaryReads.call(() -> transactionRepository.findByTransactionId(transactionId)).orElse(null);
+            if (transaction == null || !claim(transaction)) {
+                return;
+            }
+            outcome = runSteps(transaction);
+        } catch (Exception e) {
+            outcome = "error";
+            log.error("Saga execution aborted for transaction {}: {}", transactionId, e.getMessage());
+        } finally {
+            inFlight.remove(transactionId);
+            sample.stop(meterRegistry.timer("saga.duration", "outcome", outcome));
+        }
+    }
+    private boolean claim(Transaction transaction) {
+        if (transaction.getStatus() != TransactionStatus.PENDING && transaction.getStatus() != TransactionStatus.PROCESSING) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plusSeconds(leaseSeconds);
+        if (transactionRepository.claimSaga(transaction.getTransactionId(), owner, now, leaseUntil) == 0) {
+            return false;
+        }
+        transaction.setStatus(TransactionStatus.PROCESSING);
+        transaction.setSagaOwner(owner);
+        transaction.setSagaLeaseUntil(leaseUntil);
+        return true;
+    }
+    private String runSteps(Transaction transaction) {
+        log.info("Executing saga for transaction: {}", transaction.getTransactionId());
+        try {
+            if (transaction.getSagaState() == null) {
+                adoptLegacySteps(transaction);
+            }
+            if (localTransferEnabled && transaction.getSagaState() == SagaState.INITIAL && transferLocally(transaction)) {
+                finish(transaction, StepStatus.COMPLETED, TransactionStatus.COMPLETED, null, LocalDateTime.now(),
+                        SagaStep.values());
+                log.info("Transaction completed with a local transfer: {}", transaction.getTransactionId());
+                return "local";
+            }
+            SagaStep[] steps = SagaStep.values();
+            for (SagaStep step : steps) {
+                StepStatus status = SagaState.status(transaction.getSagaState(), step);
+                if (status == StepStatus.COMPLETED) {
+                    continue;
+                }
+                if (status != StepStatus.PENDING) {
+                    throw new TransactionException(step.getLabel() + " failed before the saga was resumed");
+                }
+                executeStep(transaction, step);
+                if (step == steps[steps.length - 1]) {
+                    finish(transaction, StepStatus.COMPLETED, TransactionStatus.COMPLETED, null, LocalDateTime.now(), step);
+                } else {
+                    transition(transaction, step, StepStatus.COMPLETED, null);
+                }
+            }
+            log.info("Transaction completed successfully: {}", transaction.getTransactionId());
+            return "completed";
+        } catch (ConcurrentSagaUpdateException e) {
+            log.warn("Saga state of transaction {} was advanced elsewhere, abandoning this run", transaction.getTransactionId());
+            return "skipped";
+        } catch (LocalTransferInDoubtException e) {
+            log.warn("Outcome of the local transfer for transaction {} is unknown, leaving it PROCESSING for recovery: {}",
+                    transaction.getTransactionId(), e.getMessage());
+            return "in-doubt";
+        } catch (Exception e) {
+            log.error("Saga failed for transaction {}: {}", transaction.getTransactionId(), e.getMessage());
+            compensateSaga(transaction);
+            finish(transaction, null, TransactionStatus.FAILED, e.getMessage(), null);
+            return "failed";
+        }
+    }
+    private void adoptLegacySteps(Transaction transaction) {
+        String transactionId = transaction.getTransactionId();
+        int state = SagaState.encode(stepRepository.findByTransactionIdOrderByStepOrderAsc(transactionId));
+        if (transactionRepository.initializeSagaState(transactionId, state) == 0) {
+            state = PrimaryReads.call(() -> transactionRepository.findByTransactionId(transactionId))
+                    .map(Transaction::getSagaState)
+                    .orElseThrow(() -> new ConcurrentSagaUpdateException(transactionId));
+        }
+        transaction.setSagaState(state);
+    }
+    private boolean transferLocally(Transaction transaction) {
+        AccountTransferRequest request = AccountTransferRequest.builder()
+                .fromAccount(transaction.getFromAccount())
+                .toAccount(transaction.getToAccount())
+                .amount(transaction.getAmount())
+                .transactionId(transaction.getTransactionId())
+                .build();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                accountServiceClient.transfer(request);
+                return true;
+            } catch (RuntimeException e) {
+                int status = e instanceof FeignException feignException ? feignException.status() : -1;
+                if (status == HttpStatus.UNPROCESSABLE_ENTITY.value() || status == HttpStatus.NOT_FOUND.value()) {
+                    log.info("Transaction {} cannot transfer locally, running the saga: {}",
+                            transaction.getTransactionId(), e.getMessage());
+                    return false;
+                }
+                if (isDefinite(status)) {
+                    throw new TransactionException("Transfer failed: " + e.getMessage());
+                }
+                if (attempt >= localTransferAttempts) {
+                    throw new LocalTransferInDoubtException(e);
+                }
+                log.warn("Local transfer attempt {} for transaction {} failed, retrying: {}",
+                        attempt, transaction.getTransactionId(), e.getMessage());
+            }
+        }
+    }
+    private static boolean isDefinite(int status) {
+        HttpStatus httpStatus = HttpStatus.resolve(status);
+        return httpStatus != null && httpStatus.is4xxClientError()
+                && httpStatus != HttpStatus.REQUEST_TIMEOUT && httpStatus != HttpStatus.TOO_MANY_REQUESTS;
+    }
+    private void executeStep(Transaction transaction, SagaStep step) {
+        log.info("Executing {} step for transaction: {}", step, transaction.getTransactionId());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failed";
+        try {
+            if (step == SagaStep.DEBIT_FROM_ACCOUNT) {
+                accountServiceClient.debitAccount(transaction.getFromAccount(), AccountTransactionRequest.builder()
+                        .amount(transaction.getAmount())
+                        .transactionId(transaction.getTransactionId())
+                        .description("Transfer to " + transaction.getToAccount())
+                        .build());
+            } else {
+                accountServiceClient.creditAccount(transaction.getToAccount(), AccountTransactionRequest.builder()
+                        .amount(transaction.getAmount())
+                        .transactionId(transaction.getTransactionId())
+                        .description("Transfer from " + transaction.getFromAccount())
+                        .build());
+            }
+            outcome = "completed";
+            log.info("{} step completed for transaction: {}", step, transaction.getTransactionId());
+        } catch (Exception e) {
+            transition(transaction, step, StepStatus.FAILED, e.getMessage());
+            throw new TransactionException(step.getLabel() + " failed: " + e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("saga.step.duration", "step", step.name(), "outcome", outcome));
+        }
+    }
+    private void compensateSaga(Transaction transaction) {
+        log.info("Executing compensation for transaction: {}", transaction.getTransactionId());
+        SagaStep[] steps = SagaStep.values();
+        for (int i = steps.length - 1; i >= 0; i--) {
+            SagaStep step = steps[i];
+            if (SagaState.status(transaction.getSagaState(), step) == StepStatus.COMPLETED) {
+                try {
+                    compensateStep(transaction, step);
+                    transition(transaction, step, StepStatus.COMPENSATED, null);
+                } catch (ConcurrentSagaUpdateException e) {
+                    throw e;
+                } catch (Exception e) {
+                    log.error("Compensation failed for step {}: {}", step, e.getMessage());
+                }
+            }
+        }
+    }
+    private void compensateStep(Transaction transaction, SagaStep step) {
+        if (step == SagaStep.DEBIT_FROM_ACCOUNT) {
+            AccountTransactionRequest request = AccountTransactionRequest.builder()
+                    .amount(transaction.getAmount())
+                    .transactionId(transaction.getTransactionId() + "-REVERSAL")
+                    .description("Reversal: " + transaction.getDescription())
+                    .build();
+            accountServiceClient.creditAccount(transaction.getFromAccount(), request);
+            log.info("Compensated debit for transaction: {}", transaction.getTransactionId());
+        }
+    }
+    private void transition(Transaction transaction, SagaStep step, StepStatus status, String errorMessage) {
+        String transactionId = transaction.getTransactionId();
+        int from = transaction.getSagaState();
+        int to = SagaState.with(from, step, status);
+        if (stepLogEnabled) {
+            transactionTemplate.executeWithoutResult(tx -> {
+                applyTransition(transactionId, from, to);
+                logStep(transactionId, step, status, errorMessage);
+            });
+        } else {
+            applyTransition(transactionId, from, to);
+        }
+        transaction.setSagaState(to);
+    }
+    private void applyTransition(String transactionId, int from, int to) {
+        if (transactionRepository.transitionSagaState(transactionId, owner, from, to,
+                LocalDateTime.now().plusSeconds(leaseSeconds)) == 0) {
+            throw new ConcurrentSagaUpdateException(transactionId);
+        }
+    }
+    private void finish(Transaction transaction, StepStatus stepStatus, TransactionStatus status,
+                        String errorMessage, LocalDateTime completedAt, SagaStep... steps) {
+        String transactionId = transaction.getTransactionId();
+        int from = transaction.getSagaState();
+        int advanced = from;
+        for (SagaStep step : steps) {
+            advanced = SagaState.with(advanced, step, stepStatus);
+        }
+        int to = advanced;
+        transactionTemplate.executeWithoutResult(tx -> {
+            if (transactionRepository.finishSaga(transactionId, owner, from, to, status, errorMessage, completedAt) == 0) {
+                throw new ConcurrentSagaUpdateException(transactionId);
+            }
+            if (stepLogEnabled) {
+                for (SagaStep step : steps) {
+                    logStep(transactionId, step, stepStatus, null);
+                }
+            }
+            transaction.setSagaState(to);
+            transaction.setStatus(status);
+            transaction.setErrorMessage(errorMessage);
+            transaction.setCompletedAt(completedAt);
+            eventPublisher.publish(transaction, status.name());
+        });
+    }
+    private void logStep(String transactionId, SagaStep step, StepStatus status, String errorMessage) {
+        stepLogRepository.save(SagaStepLog.builder()
+                .transactionId(transactionId)
+                .step(step)
+                .status(status)
+                .errorMessage(errorMessage)
+                .build());
+    }
+    private static final class LocalTransferInDoubtException extends RuntimeException {
+        private LocalTransferInDoubtException(Throwable cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+    private static final class ConcurrentSagaUpdateException extends RuntimeException {
+        private ConcurrentSagaUpdateException(String transactionId) {
+            super("Saga state of transaction " + transactionId + " changed concurrently");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+﻿package com.banking.transaction.service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "saga.state.migration.enabled", havingValue = "true", matchIfMissing = true)
+public class SagaStateMigrator {
+    private static final String SELECT_BATCH_SQL = "SELECT id, transaction_id FROM transactions "
+            + "WHERE saga_state IS NULL AND transaction_type = 'TRANSFER' AND id > ? ORDER BY id LIMIT ?";
+    private static final String MIGRATE_SQL = "UPDATE transactions t SET saga_state = s.state "
+            + "FROM (SELECT transaction_id, CAST(SUM((CASE status "
+            + "WHEN 'COMPLETED' THEN 1 WHEN 'FAILED' THEN 2 WHEN 'COMPENSATED' THEN 3 ELSE 0 END) "
+            + "<< (2 * (step_order - 1))) AS INTEGER) AS state "
+            + "FROM transaction_steps WHERE transaction_id = ANY (?) GROUP BY transaction_id) s "
+            + "WHERE t.transaction_id = s.transaction_id AND t.saga_state IS NULL";
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    @Value("${saga.state.migration.batch-size:1000}")
+    private int batchSize;
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateStepRows() {
+        long lastId = 0;
+        long migrated = 0;
+        while (true) {
+            List<Map<String, Object>> batch = jdbcTemplate.queryForList(SELECT_BATCH_SQL, lastId, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            String[] transactionIds = batch.stream()
+                    .map(row -> (String) row.get("transaction_id"))
+                    .toArray(String[]::new);
+            Integer updated = transactionTemplate.execute(status -> jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(MIGRATE_SQL);
+                ps.setArray(1, connection.createArrayOf("varchar", transactionIds));
+                return ps;
+            }));
+            migrated += updated != null ? updated : 0;
+            lastId = ((Number) batch.get(batch.size() - 1).get("id")).longValue();
+        }
+        if (migrated > 0) {
+            log.info("Migrated saga state of {} transfers from transaction_steps", migrated);
+        }
+    }
+}
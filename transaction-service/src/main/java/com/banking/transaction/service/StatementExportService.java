@@ -0,0 +1,70 @@
+﻿package com.banking.transaction.service;
+import com.banking.transaction.dto.ExportFormat;
+import com.banking.transaction.exception.TransactionException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatementExportService {
+    private static final String COLUMN_LIST = "id, transaction_id, from_account, to_account, amount, transaction_type, "
+            + "status, description, fee, initiated_by, created_at, completed_at";
+    private static final String[] COLUMNS = {"id", "transactionId", "fromAccount", "toAccount", "amount",
+            "transactionType", "status", "description", "fee", "initiatedBy", "createdAt", "completedAt"};
+    private static final String ACCOUNT_STATEMENT_SQL = "SELECT " + COLUMN_LIST + " FROM ("
+            + "SELECT " + COLUMN_LIST + " FROM transactions WHERE from_account = ? AND created_at >= ? AND created_at < ? "
+            + "UNION ALL "
+            + "SELECT " + COLUMN_LIST + " FROM transactions WHERE to_account = ? AND from_account <> ? "
+            + "AND created_at >= ? AND created_at < ?"
+            + ") t ORDER BY created_at, id";
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    @Value("${statement.export.fetch-size:1000}")
+    private int fetchSize;
+    public void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new TransactionException("Export range start must be before its end");
+        }
+    }
+    @Transactional(readOnly = true)
+    public long exportAccountTransactions(String accountNumber, LocalDateTime from, LocalDateTime to,
+                                          ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        Timestamp start = Timestamp.valueOf(from != null ? from : EARLIEST);
+        Timestamp end = Timestamp.valueOf(to != null ? to : LATEST);
+        try (StatementWriter writer = new StatementWriter(out, gzip, format, COLUMNS, objectMapper.getFactory())) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(ACCOUNT_STATEMENT_SQL);
+                ps.setFetchSize(fetchSize);
+                ps.setString(1, accountNumber);
+                ps.setTimestamp(2, start);
+                ps.setTimestamp(3, end);
+                ps.setString(4, accountNumber);
+                ps.setString(5, accountNumber);
+                ps.setTimestamp(6, start);
+                ps.setTimestamp(7, end);
+                return ps;
+            }, rs -> {
+                try {
+                    writer.writeRow(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Exported {} transactions for account {}", writer.getRows(), accountNumber);
+            return writer.getRows();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+﻿package com.banking.transaction.service;
+import com.banking.transaction.dto.ExportFormat;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.zip.GZIPOutputStream;
+public class StatementWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private final ExportFormat format;
+    private final String[] columns;
+    private final Writer writer;
+    private final JsonGenerator json;
+    private long rows;
+    public StatementWriter(OutputStream out, boolean gzip, ExportFormat format, String[] columns,
+                           JsonFactory jsonFactory) throws IOException {
+        this.format = format;
+        this.columns = columns;
+        OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+        this.writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == ExportFormat.NDJSON) {
+            this.json = jsonFactory.createGenerator(writer);
+            this.json.setRootValueSeparator(new SerializedString("\n"));
+        } else {
+            this.json = null;
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+        }
+    }
+    public void writeRow(ResultSet rs) throws SQLException, IOException {
+        if (json != null) {
+            json.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                json.writeFieldName(columns[i]);
+                writeJsonValue(rs.getObject(i + 1));
+            }
+            json.writeEndObject();
+        } else {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvValue(rs.getObject(i + 1));
+            }
+            writer.write('\n');
+        }
+        rows++;
+    }
+    public long getRows() {
+        return rows;
+    }
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.flush();
+            if (rows > 0) {
+                writer.write('\n');
+            }
+        }
+        writer.close();
+    }
+    private void writeJsonValue(Object value) throws IOException {
+        if (value == null) {
+            json.writeNull();
+        } else if (value instanceof BigDecimal decimal) {
+            json.writeNumber(decimal);
+        } else if (value instanceof Number number) {
+            json.writeNumber(number.longValue());
+        } else if (value instanceof Boolean bool) {
+            json.writeBoolean(bool);
+        } else {
+            json.writeString(text(value));
+        }
+    }
+    private void writeCsvValue(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : text(value);
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(text);
+        }
+    }
+    private String text(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime().toString() : value.toString();
+    }
+}
@@ -0,0 +1,30 @@
+﻿package com.banking.transaction.service;
+import com.banking.transaction.entity.Transaction;
+import com.banking.transaction.event.TransactionEvent;
+import com.banking.transaction.outbox.OutboxPublisher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionEventPublisher {
+    private final OutboxPublisher outboxPublisher;
+    public void publish(Transaction transaction, String status) {
+        TransactionEvent event = TransactionEvent.builder()
+                .transactionId(transaction.getTransactionId())
+                .fromAccount(transaction.getFromAccount())
+                .toAccount(transaction.getToAccount())
+                .amount(transaction.getAmount())
+                .transactionType(transaction.getTransactionType().name())
+                .status(status)
+                .description(transaction.getDescription())
+                .initiatedBy(transaction.getInitiatedBy())
+                .timestamp(LocalDateTime.now())
+                .build();
+        String topic = "COMPLETED".equals(status) ? "transaction-completed" : "transaction-failed";
+        outboxPublisher.publish(topic, transaction.getTransactionId(), event);
+        log.info("Queued transaction event for {}: {}", topic, transaction.getTransactionId());
+    }
+}
@@ -1,39 +1,55 @@
 ﻿package com.banking.transaction.service;
+import com.banking.transaction.cache.AccountMetadataCache;
 import com.banking.transaction.client.AccountServiceClient;
 import com.banking.transaction.dto.*;
 import com.banking.transaction.entity.*;
-import com.banking.transaction.event.TransactionEvent;
 import com.banking.transaction.exception.TransactionException;
 import com.banking.transaction.exception.TransactionNotFoundException;
+import com.banking.transaction.id.SnowflakeIdGenerator;
 import com.banking.transaction.repository.TransactionRepository;
 import com.banking.transaction.repository.TransactionStepRepository;
+import com.banking.persistence.PrimaryRead;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final String TRANSACTION_ID_PREFIX = "TXN";
     private final TransactionRepository transactionRepository;
     private final TransactionStepRepository stepRepository;
     private final AccountServiceClient accountServiceClient;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
-    @Transactional
-    public TransactionDTO initiateTransfer(TransferRequest request) {
+    private final AccountMetadataCache accountMetadataCache;
+    private final TransactionEventPublisher eventPublisher;
+    private final SagaOrchestrator sagaOrchestrator;
+    private final SnowflakeIdGenerator idGenerator;
+    @PrimaryRead
+    public TransactionDTO initiateTransfer(TransferRequest request, String idempotencyKey) {
         log.info("Initiating transfer from {} to {}, amount: {}", 
                 request.getFromAccount(), request.getToAccount(), request.getAmount());
+        if (idempotencyKey != null) {
+            Optional<Transaction> existing = transactionRepository.findByIdempotencyKey(idempotencyKey);
+            if (existing.isPresent()) {
+                return replayTransfer(existing.get(), request);
+            }
+        }
         validateAccounts(request.getFromAccount(), request.getToAccount());
         String transactionId = generateTransactionId();
         Transaction transaction = Transaction.builder()
                 .transactionId(transactionId)
+                .idempotencyKey(idempotencyKey)
                 .fromAccount(request.getFromAccount())
                 .toAccount(request.getToAccount())
                 .amount(request.getAmount())
@@ -41,11 +57,21 @@ public class TransactionService {
                 .status(TransactionStatus.PENDING)
                 .description(request.getDescription())
                 .initiatedBy(request.getInitiatedBy())
+                .sagaState(SagaState.INITIAL)
                 .build();
-        Transaction savedTransaction = transactionRepository.save(transaction);
-        createTransactionSteps(transactionId);
-        executeSaga(savedTransaction);
-        return TransactionDTO.from(transactionRepository.findByTransactionId(transactionId).orElseThrow());
+        Transaction savedTransaction;
+        try {
+            savedTransaction = transactionRepository.save(transaction);
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencyKey == null) {
+                throw e;
+            }
+            return replayTransfer(transactionRepository.findByIdempotencyKey(idempotencyKey).orElseThrow(() -> e), request);
+        }
+        TransactionDTO accepted = TransactionDTO.from(savedTransaction);
+        sagaOrchestrator.submit(savedTransaction);
+        log.info("Transfer accepted: {}", transactionId);
+        return accepted;
     }
     @Transactional
     public TransactionDTO deposit(DepositRequest request) {
@@ -72,14 +98,14 @@ public class TransactionService {
             transaction.setStatus(TransactionStatus.COMPLETED);
             transaction.setCompletedAt(LocalDateTime.now());
             transactionRepository.save(transaction);
-            publishTransactionEvent(transaction, "COMPLETED");
+            eventPublisher.publish(transaction, "COMPLETED");
             log.info("Deposit completed: {}", transactionId);
         } catch (Exception e) {
             log.error("Deposit failed: {}", e.getMessage());
             transaction.setStatus(TransactionStatus.FAILED);
             transaction.setErrorMessage(e.getMessage());
             transactionRepository.save(transaction);
-            publishTransactionEvent(transaction, "FAILED");
+            eventPublisher.publish(transaction, "FAILED");
             throw new TransactionException("Deposit failed: " + e.getMessage());
         }
         return TransactionDTO.from(transaction);
@@ -109,14 +135,14 @@ public class TransactionService {
             transaction.setStatus(TransactionStatus.COMPLETED);
             transaction.setCompletedAt(LocalDateTime.now());
             transactionRepository.save(transaction);
-            publishTransactionEvent(transaction, "COMPLETED");
+            eventPublisher.publish(transaction, "COMPLETED");
             log.info("Withdrawal completed: {}", transactionId);
         } catch (Exception e) {
             log.error("Withdrawal failed: {}", e.getMessage());
             transaction.setStatus(TransactionStatus.FAILED);
             transaction.setErrorMessage(e.getMessage());
             transactionRepository.save(transaction);
-            publishTransactionEvent(transaction, "FAILED");
+            eventPublisher.publish(transaction, "FAILED");
             throw new TransactionException("Withdrawal failed: " + e.getMessage());
         }
         return TransactionDTO.from(transaction);
@@ -128,11 +154,44 @@ public class TransactionService {
         return TransactionDTO.from(transaction);
     }
     @Transactional(readOnly = true)
+    public TransactionStatusResponse getTransactionStatus(String transactionId) {
+        Transaction transaction = transactionRepository.findByTransactionId(transactionId)
+                .orElseThrow(() -> new TransactionNotFoundException("Transaction not found: " + transactionId));
+        return TransactionStatusResponse.builder()
+                .transactionId(transaction.getTransactionId())
+                .status(transaction.getStatus())
+                .errorMessage(transaction.getErrorMessage())
+                .steps(steps(transaction))
+                .createdAt(transaction.getCreatedAt())
+                .completedAt(transaction.getCompletedAt())
+                .build();
+    }
+    @Transactional(readOnly = true)
     public Page<TransactionDTO> getTransactionsByAccount(String accountNumber, Pageable pageable) {
         return transactionRepository.findByAccountNumber(accountNumber, pageable)
                 .map(TransactionDTO::from);
     }
     @Transactional(readOnly = true)
+    public CursorPage<TransactionDTO> getTransactionPageByAccount(String accountNumber, String cursor, int size) {
+        PageCursor after;
+        try {
+            after = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new TransactionException(e.getMessage());
+        }
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<Transaction> rows = transactionRepository.findPageByAccountNumber(
+                accountNumber, after.getCreatedAt(), after.getId(), limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<Transaction> page = hasMore ? rows.subList(0, limit) : rows;
+        Transaction last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return CursorPage.<TransactionDTO>builder()
+                .items(page.stream().map(TransactionDTO::from).collect(Collectors.toList()))
+                .nextCursor(hasMore ? new PageCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+    @Transactional(readOnly = true)
     public List<TransactionDTO> getTransactionsByUser(Long userId) {
         return transactionRepository.findByInitiatedByOrderByCreatedAtDesc(userId).stream()
                 .map(TransactionDTO::from)
@@ -144,146 +203,39 @@ public class TransactionService {
                 .map(TransactionDTO::from)
                 .collect(Collectors.toList());
     }
-    private void executeSaga(Transaction transaction) {
-        log.info("Executing saga for transaction: {}", transaction.getTransactionId());
-        transaction.setStatus(TransactionStatus.PROCESSING);
-        transactionRepository.save(transaction);
-        List<TransactionStep> steps = stepRepository.findByTransactionIdOrderByStepOrderAsc(transaction.getTransactionId());
-        try {
-            TransactionStep debitStep = steps.get(0);
-            executeDebitStep(transaction, debitStep);
-            TransactionStep creditStep = steps.get(1);
-            executeCreditStep(transaction, creditStep);
-            transaction.setStatus(TransactionStatus.COMPLETED);
-            transaction.setCompletedAt(LocalDateTime.now());
-            transactionRepository.save(transaction);
-            publishTransactionEvent(transaction, "COMPLETED");
-            log.info("Transaction completed successfully: {}", transaction.getTransactionId());
-        } catch (Exception e) {
-            log.error("Saga failed for transaction {}: {}", transaction.getTransactionId(), e.getMessage());
-            compensateSaga(transaction, steps);
-            transaction.setStatus(TransactionStatus.FAILED);
-            transaction.setErrorMessage(e.getMessage());
-            transactionRepository.save(transaction);
-            publishTransactionEvent(transaction, "FAILED");
-        }
-    }
-    private void executeDebitStep(Transaction transaction, TransactionStep step) {
-        log.info("Executing debit step for transaction: {}", transaction.getTransactionId());
-        try {
-            AccountTransactionRequest request = AccountTransactionRequest.builder()
-                    .amount(transaction.getAmount())
-                    .transactionId(transaction.getTransactionId())
-                    .description("Transfer to " + transaction.getToAccount())
-                    .build();
-            accountServiceClient.debitAccount(transaction.getFromAccount(), request);
-            step.setStatus(StepStatus.COMPLETED);
-            step.setCompletedAt(LocalDateTime.now());
-            stepRepository.save(step);
-            log.info("Debit step completed for transaction: {}", transaction.getTransactionId());
-        } catch (Exception e) {
-            step.setStatus(StepStatus.FAILED);
-            step.setErrorMessage(e.getMessage());
-            stepRepository.save(step);
-            throw new TransactionException("Debit failed: " + e.getMessage());
-        }
-    }
-    private void executeCreditStep(Transaction transaction, TransactionStep step) {
-        log.info("Executing credit step for transaction: {}", transaction.getTransactionId());
-        try {
-            AccountTransactionRequest request = AccountTransactionRequest.builder()
-                    .amount(transaction.getAmount())
-                    .transactionId(transaction.getTransactionId())
-                    .description("Transfer from " + transaction.getFromAccount())
-                    .build();
-            accountServiceClient.creditAccount(transaction.getToAccount(), request);
-            step.setStatus(StepStatus.COMPLETED);
-            step.setCompletedAt(LocalDateTime.now());
-            stepRepository.save(step);
-            log.info("Credit step completed for transaction: {}", transaction.getTransactionId());
-        } catch (Exception e) {
-            step.setStatus(StepStatus.FAILED);
-            step.setErrorMessage(e.getMessage());
-            stepRepository.save(step);
-            throw new TransactionException("Credit failed: " + e.getMessage());
-        }
-    }
-    private void compensateSaga(Transaction transaction, List<TransactionStep> steps) {
-        log.info("Executing compensation for transaction: {}", transaction.getTransactionId());
-        for (int i = steps.size() - 1; i >= 0; i--) {
-            TransactionStep step = steps.get(i);
-            if (step.getStatus() == StepStatus.COMPLETED) {
-                try {
-                    compensateStep(transaction, step);
-                    step.setStatus(StepStatus.COMPENSATED);
-                    stepRepository.save(step);
-                } catch (Exception e) {
-                    log.error("Compensation failed for step {}: {}", step.getStepName(), e.getMessage());
-                }
-            }
-        }
-    }
-    private void compensateStep(Transaction transaction, TransactionStep step) {
-        if ("DEBIT_FROM_ACCOUNT".equals(step.getStepName())) {
-            AccountTransactionRequest request = AccountTransactionRequest.builder()
-                    .amount(transaction.getAmount())
-                    .transactionId(transaction.getTransactionId() + "-REVERSAL")
-                    .description("Reversal: " + transaction.getDescription())
-                    .build();
-            accountServiceClient.creditAccount(transaction.getFromAccount(), request);
-            log.info("Compensated debit for transaction: {}", transaction.getTransactionId());
+    private TransactionDTO replayTransfer(Transaction existing, TransferRequest request) {
+        if (!existing.getFromAccount().equals(request.getFromAccount())
+                || !existing.getToAccount().equals(request.getToAccount())
+                || existing.getAmount().compareTo(request.getAmount()) != 0) {
+            throw new TransactionException("Idempotency key was already used for a different transfer");
         }
+        log.info("Replaying transfer {} for repeated idempotency key", existing.getTransactionId());
+        return TransactionDTO.from(existing);
     }
     private void validateAccounts(String fromAccount, String toAccount) {
         if (fromAccount.equals(toAccount)) {
             throw new TransactionException("Cannot transfer to the same account");
         }
-        AccountDTO fromAcc = accountServiceClient.getAccount(fromAccount);
-        if (fromAcc == null) {
+        Map<String, AccountMetadata> accounts = accountMetadataCache.getAll(List.of(fromAccount, toAccount));
+        if (!accounts.containsKey(fromAccount)) {
             throw new TransactionException("Source account not found: " + fromAccount);
         }
-        AccountDTO toAcc = accountServiceClient.getAccount(toAccount);
-        if (toAcc == null) {
+        if (!accounts.containsKey(toAccount)) {
             throw new TransactionException("Destination account not found: " + toAccount);
         }
     }
-    private void createTransactionSteps(String transactionId) {
-        TransactionStep debitStep = TransactionStep.builder()
-                .transactionId(transactionId)
-                .stepName("DEBIT_FROM_ACCOUNT")
-                .stepOrder(1)
-                .status(StepStatus.PENDING)
-                .build();
-        TransactionStep creditStep = TransactionStep.builder()
-                .transactionId(transactionId)
-                .stepName("CREDIT_TO_ACCOUNT")
-                .stepOrder(2)
-                .status(StepStatus.PENDING)
-                .build();
-        stepRepository.save(debitStep);
-        stepRepository.save(creditStep);
+    private List<TransactionStepDTO> steps(Transaction transaction) {
+        if (transaction.getSagaState() == null) {
+            return stepRepository.findByTransactionIdOrderByStepOrderAsc(transaction.getTransactionId()).stream()
+                    .map(TransactionStepDTO::from)
+                    .collect(Collectors.toList());
+        }
+        return Arrays.stream(SagaStep.values())
+                .map(step -> TransactionStepDTO.from(step, SagaState.status(transaction.getSagaState(), step),
+                        transaction.getErrorMessage()))
+                .collect(Collectors.toList());
     }
     private String generateTransactionId() {
-        return "TXN" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-    }
-    private void publishTransactionEvent(Transaction transaction, String status) {
-        TransactionEvent event = TransactionEvent.builder()
-                .transactionId(transaction.getTransactionId())
-                .fromAccount(transaction.getFromAccount())
-                .toAccount(transaction.getToAccount())
-                .amount(transaction.getAmount())
-                .transactionType(transaction.getTransactionType().name())
-                .status(status)
-                .description(transaction.getDescription())
-                .initiatedBy(transaction.getInitiatedBy())
-                .timestamp(LocalDateTime.now())
-                .build();
-        String topic = "COMPLETED".equals(status) ? "transaction-completed" : "transaction-failed";
-        try {
-            kafkaTemplate.send(topic, event);
-            log.info("Published transaction event to {}: {}", topic, transaction.getTransactionId());
-        } catch (Exception e) {
-            log.error("Failed to publish transaction event: {}", e.getMessage());
-        }
+        return TRANSACTION_ID_PREFIX + SnowflakeIdGenerator.toSortableString(idGenerator.nextId());
     }
 }
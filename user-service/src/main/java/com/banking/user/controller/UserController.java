@@ -1,4 +1,5 @@
 ﻿package com.banking.user.controller;
+import com.banking.user.dto.CursorPage;
 import com.banking.user.dto.UpdateUserRequest;
 import com.banking.user.dto.UserDTO;
 import com.banking.user.entity.KycStatus;
@@ -6,7 +7,6 @@ import com.banking.user.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
 import java.util.Map;
 @RestController
 @RequestMapping("/api/users")
@@ -14,8 +14,12 @@ import java.util.Map;
 public class UserController {
     private final UserService userService;
     @GetMapping
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<CursorPage<UserDTO>> getUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) KycStatus kycStatus,
+            @RequestParam(required = false) Boolean active) {
+        return ResponseEntity.ok(userService.getUserDirectory(cursor, size, kycStatus, active));
     }
     @GetMapping("/{userId}")
     public ResponseEntity<UserDTO> getUserById(@PathVariable Long userId) {
@@ -11,14 +11,19 @@ import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_kyc_status_id", columnList = "kyc_status, id"),
+        @Index(name = "idx_users_is_active_id", columnList = "is_active, id"),
+        @Index(name = "idx_users_kyc_status_is_active_id", columnList = "kyc_status, is_active, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     @Column(unique = true, nullable = false, length = 50)
     private String username;
@@ -0,0 +1,6 @@
+﻿package com.banking.user.exception;
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
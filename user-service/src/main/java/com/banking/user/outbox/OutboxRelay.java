@@ -0,0 +1,138 @@
+﻿package com.banking.user.outbox;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+    private static final int PARTITION_LOCK_NAMESPACE = 0x4f555442;
+    private final OutboxEventRepository outboxRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    @Value("${outbox.relay.partitions:8}")
+    private int partitions;
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+    @Value("${outbox.purge.retention-hours:24}")
+    private long retentionHours;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private Counter sentCounter;
+    private Counter failedCounter;
+    private DistributionSummary batchSizeSummary;
+    private Timer batchTimer;
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("outbox.relay.lag", lagMillis, AtomicLong::get)
+                .description("Age of the oldest unsent outbox event")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        sentCounter = Counter.builder("outbox.relay.sent")
+                .description("Outbox events delivered to Kafka")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("outbox.relay.failed")
+                .description("Outbox events that could not be decoded or delivered")
+                .register(meterRegistry);
+        batchSizeSummary = DistributionSummary.builder("outbox.relay.batch.size")
+                .description("Outbox events drained per relay batch")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("outbox.relay.batch.duration")
+                .description("Time to send and acknowledge one relay batch")
+                .register(meterRegistry);
+    }
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        try {
+            for (int partition = 0; partition < partitions; partition++) {
+                relayPartition(partition);
+            }
+        } finally {
+            LocalDateTime oldest = outboxRepository.findOldestPendingCreatedAt();
+            lagMillis.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis());
+        }
+    }
+    @Scheduled(cron = "${outbox.purge.cron:0 15 * * * *}")
+    public void purgeSent() {
+        Integer purged = transactionTemplate.execute(status ->
+                outboxRepository.purgeSentBefore(LocalDateTime.now().minusHours(retentionHours)));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} sent outbox events", purged);
+        }
+    }
+    private void relayPartition(int partition) {
+        try {
+            Integer drained;
+            do {
+                drained = transactionTemplate.execute(status -> relayBatch(partition));
+            } while (drained != null && drained >= batchSize);
+        } catch (Exception e) {
+            log.error("Outbox relay batch for partition {} failed, will retry: {}", partition, e.getMessage());
+        }
+    }
+    private int relayBatch(int partition) {
+        if (!outboxRepository.tryLockPartition(PARTITION_LOCK_NAMESPACE, partition)) {
+            return 0;
+        }
+        List<OutboxEvent> batch = outboxRepository.findPendingBatch(partitions, partition, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        List<CompletableFuture<?>> acks = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            Object payload;
+            try {
+                payload = objectMapper.readValue(event.getPayload(), Class.forName(event.getEventType()));
+            } catch (Exception e) {
+                failedCounter.increment();
+                log.error("Parking undecodable outbox event {} ({}): {}", event.getId(), event.getEventType(), e.getMessage());
+                outboxRepository.markFailed(event.getId(), LocalDateTime.now(), abbreviate(e.toString()));
+                continue;
+            }
+            acks.add(kafkaTemplate.send(event.getTopic(), event.getMessageKey(), payload));
+            sentIds.add(event.getId());
+        }
+        try {
+            CompletableFuture.allOf(acks.toArray(new CompletableFuture[0])).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            failedCounter.increment(sentIds.size());
+            throw new IllegalStateException("Kafka did not acknowledge outbox batch: " + e.getMessage(), e);
+        }
+        if (!sentIds.isEmpty()) {
+            outboxRepository.markSent(sentIds, LocalDateTime.now());
+        }
+        sentCounter.increment(sentIds.size());
+        batchSizeSummary.record(batch.size());
+        sample.stop(batchTimer);
+        log.debug("Relayed {} outbox events", sentIds.size());
+        return batch.size();
+    }
+    private static String abbreviate(String reason) {
+        return reason.length() <= 500 ? reason : reason.substring(0, 500);
+    }
+}
@@ -0,0 +1,85 @@
+﻿package com.banking.user.repository;
+import com.banking.user.dto.UserDTO;
+import com.banking.user.entity.KycStatus;
+import com.banking.user.entity.RoleName;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+@Repository
+@RequiredArgsConstructor
+public class UserDirectoryRepository {
+    private static final String SELECT_USERS = "SELECT u.id, u.username, u.email, u.fullName, u.phoneNumber, "
+            + "u.dateOfBirth, u.address, u.kycStatus, u.isActive, u.createdAt, u.updatedAt FROM User u";
+    private static final String SELECT_ROLES = "SELECT u.id, r.name FROM User u JOIN u.roles r WHERE u.id IN :ids";
+    private final EntityManager entityManager;
+    public List<UserDTO> findPage(Long afterId, KycStatus kycStatus, Boolean active, int limit) {
+        StringBuilder jpql = new StringBuilder(SELECT_USERS).append(" WHERE u.id > :afterId");
+        if (kycStatus != null) {
+            jpql.append(" AND u.kycStatus = :kycStatus");
+        }
+        if (active != null) {
+            jpql.append(" AND u.isActive = :active");
+        }
+        jpql.append(" ORDER BY u.id");
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit);
+        if (kycStatus != null) {
+            query.setParameter("kycStatus", kycStatus);
+        }
+        if (active != null) {
+            query.setParameter("active", active);
+        }
+        return withRoles(query.getResultList());
+    }
+    public Optional<UserDTO> findById(Long id) {
+        return withRoles(entityManager.createQuery(SELECT_USERS + " WHERE u.id = :id", Tuple.class)
+                .setParameter("id", id)
+                .getResultList()).stream().findFirst();
+    }
+    public Optional<UserDTO> findByUsername(String username) {
+        return withRoles(entityManager.createQuery(SELECT_USERS + " WHERE u.username = :username", Tuple.class)
+                .setParameter("username", username)
+                .getResultList()).stream().findFirst();
+    }
+    private List<UserDTO> withRoles(List<Tuple> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, UserDTO> users = new LinkedHashMap<>();
+        for (Tuple row : rows) {
+            UserDTO user = UserDTO.builder()
+                    .id(row.get(0, Long.class))
+                    .username(row.get(1, String.class))
+                    .email(row.get(2, String.class))
+                    .fullName(row.get(3, String.class))
+                    .phoneNumber(row.get(4, String.class))
+                    .dateOfBirth(row.get(5, LocalDate.class))
+                    .address(row.get(6, String.class))
+                    .kycStatus(row.get(7, KycStatus.class))
+                    .isActive(row.get(8, Boolean.class))
+                    .roles(new HashSet<>())
+                    .createdAt(row.get(9, LocalDateTime.class))
+                    .updatedAt(row.get(10, LocalDateTime.class))
+                    .build();
+            users.put(user.getId(), user);
+        }
+        List<Tuple> roles = entityManager.createQuery(SELECT_ROLES, Tuple.class)
+                .setParameter("ids", users.keySet())
+                .getResultList();
+        for (Tuple role : roles) {
+            users.get(role.get(0, Long.class)).getRoles().add(role.get(1, RoleName.class).name());
+        }
+        return new ArrayList<>(users.values());
+    }
+}
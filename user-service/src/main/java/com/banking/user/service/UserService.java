@@ -7,31 +7,37 @@ import com.banking.user.entity.User;
 import com.banking.user.event.UserCreatedEvent;
 import com.banking.user.event.UserUpdatedEvent;
 import com.banking.user.exception.ResourceNotFoundException;
+import com.banking.user.exception.ServiceBusyException;
 import com.banking.user.exception.UserAlreadyExistsException;
+import com.banking.user.outbox.OutboxPublisher;
+import com.banking.user.repository.UserDirectoryRepository;
 import com.banking.user.repository.RoleRepository;
 import com.banking.user.repository.UserRepository;
 import com.banking.user.security.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class UserService {
+    private static final int MAX_PAGE_SIZE = 200;
     private final UserRepository userRepository;
+    private final UserDirectoryRepository userDirectoryRepository;
     private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final TransactionTemplate transactionTemplate;
     private final JwtTokenProvider jwtTokenProvider;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxPublisher outboxPublisher;
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserDTO registerUser(RegisterRequest request) {
         log.info("Registering new user: {}", request.getUsername());
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -40,41 +46,25 @@ public class UserService {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new UserAlreadyExistsException("Email already exists: " + request.getEmail());
         }
-        Role customerRole = roleRepository.findByName(RoleName.CUSTOMER)
-                .orElseGet(() -> {
-                    Role role = new Role();
-                    role.setName(RoleName.CUSTOMER);
-                    return roleRepository.save(role);
-                });
-        Set<Role> roles = new HashSet<>();
-        roles.add(customerRole);
-        User user = User.builder()
-                .username(request.getUsername())
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .fullName(request.getFullName())
-                .phoneNumber(request.getPhoneNumber())
-                .dateOfBirth(request.getDateOfBirth())
-                .address(request.getAddress())
-                .kycStatus(KycStatus.PENDING)
-                .isActive(true)
-                .roles(roles)
-                .build();
-        User savedUser = userRepository.save(user);
-        log.info("User registered successfully: {}", savedUser.getId());
-        publishUserCreatedEvent(savedUser);
-        return UserDTO.from(savedUser);
+        String encodedPassword = passwordHashingService.encode(request.getPassword());
+        UserDTO user = transactionTemplate.execute(status -> createUser(request, encodedPassword));
+        log.info("User registered successfully: {}", user.getId());
+        return user;
     }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public LoginResponse login(LoginRequest request) {
         log.info("Login attempt for user: {}", request.getUsername());
         User user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow(() -> new ResourceNotFoundException("Invalid credentials"));
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
             throw new ResourceNotFoundException("Invalid credentials");
         }
         if (!user.getIsActive()) {
             throw new RuntimeException("Account is inactive");
         }
+        if (passwordHashingService.upgradeEncoding(user.getPassword())) {
+            upgradePassword(user, request.getPassword());
+        }
         String token = jwtTokenProvider.generateToken(user.getId(), user.getUsername());
         log.info("Login successful for user: {}", user.getUsername());
         return LoginResponse.builder()
@@ -87,21 +77,26 @@ public class UserService {
     }
     @Transactional(readOnly = true)
     public UserDTO getUserById(Long userId) {
-        User user = userRepository.findById(userId)
+        return userDirectoryRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-        return UserDTO.from(user);
     }
     @Transactional(readOnly = true)
     public UserDTO getUserByUsername(String username) {
-        User user = userRepository.findByUsername(username)
+        return userDirectoryRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
-        return UserDTO.from(user);
     }
     @Transactional(readOnly = true)
-    public List<UserDTO> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(UserDTO::from)
-                .collect(Collectors.toList());
+    public CursorPage<UserDTO> getUserDirectory(String cursor, int size, KycStatus kycStatus, Boolean active) {
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<UserDTO> rows = userDirectoryRepository.findPage(after.getId(), kycStatus, active, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<UserDTO> page = hasMore ? rows.subList(0, limit) : rows;
+        return CursorPage.<UserDTO>builder()
+                .items(page)
+                .nextCursor(hasMore ? new PageCursor(page.get(page.size() - 1).getId()).encode() : null)
+                .hasMore(hasMore)
+                .build();
     }
     public UserDTO updateUser(Long userId, UpdateUserRequest request) {
         log.info("Updating user: {}", userId);
@@ -141,6 +136,41 @@ public class UserService {
         publishUserUpdatedEvent(updatedUser, "STATUS_CHANGED");
         return UserDTO.from(updatedUser);
     }
+    private UserDTO createUser(RegisterRequest request, String encodedPassword) {
+        Role customerRole = roleRepository.findByName(RoleName.CUSTOMER)
+                .orElseGet(() -> {
+                    Role role = new Role();
+                    role.setName(RoleName.CUSTOMER);
+                    return roleRepository.save(role);
+                });
+        Set<Role> roles = new HashSet<>();
+        roles.add(customerRole);
+        User user = User.builder()
+                .username(request.getUsername())
+                .email(request.getEmail())
+                .password(encodedPassword)
+                .fullName(request.getFullName())
+                .phoneNumber(request.getPhoneNumber())
+                .dateOfBirth(request.getDateOfBirth())
+                .address(request.getAddress())
+                .kycStatus(KycStatus.PENDING)
+                .isActive(true)
+                .roles(roles)
+                .build();
+        User savedUser = userRepository.save(user);
+        publishUserCreatedEvent(savedUser);
+        return UserDTO.from(savedUser);
+    }
+    private void upgradePassword(User user, String rawPassword) {
+        try {
+            String upgraded = passwordHashingService.encode(rawPassword);
+            if (userRepository.upgradePassword(user.getId(), user.getPassword(), upgraded) == 1) {
+                log.info("Upgraded password hash for user: {}", user.getId());
+            }
+        } catch (ServiceBusyException e) {
+            log.debug("Skipping password hash upgrade for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
     private void publishUserCreatedEvent(User user) {
         UserCreatedEvent event = UserCreatedEvent.builder()
                 .userId(user.getId())
@@ -149,12 +179,8 @@ public class UserService {
                 .fullName(user.getFullName())
                 .createdAt(LocalDateTime.now())
                 .build();
-        try {
-            kafkaTemplate.send("user-events", event);
-            log.info("Published UserCreatedEvent for user: {}", user.getId());
-        } catch (Exception e) {
-            log.error("Failed to publish UserCreatedEvent: {}", e.getMessage());
-        }
+        outboxPublisher.publish("user-events", String.valueOf(user.getId()), event);
+        log.info("Queued UserCreatedEvent for user: {}", user.getId());
     }
     private void publishUserUpdatedEvent(User user, String eventType) {
         UserUpdatedEvent event = UserUpdatedEvent.builder()
@@ -165,11 +191,7 @@ public class UserService {
                 .eventType(eventType)
                 .updatedAt(LocalDateTime.now())
                 .build();
-        try {
-            kafkaTemplate.send("user-updated", event);
-            log.info("Published UserUpdatedEvent for user: {}", user.getId());
-        } catch (Exception e) {
-            log.error("Failed to publish UserUpdatedEvent: {}", e.getMessage());
-        }
+        outboxPublisher.publish("user-updated", String.valueOf(user.getId()), event);
+        log.info("Queued UserUpdatedEvent for user: {}", user.getId());
     }
 }